@@ -0,0 +1,119 @@
+package com.attendance.attendance_system.benchmark;
+
+import com.attendance.attendance_system.controller.StudentSectionsController;
+import com.attendance.attendance_system.dto.AttendanceResponse;
+import com.attendance.attendance_system.dto.CheckInDelta;
+import com.attendance.attendance_system.dto.TokenResponse;
+import com.attendance.attendance_system.service.AttendanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the attendance backend, measured through the real Spring beans.
+ *
+ * Run with: mvn -Pbenchmarks test-compile exec:exec
+ * Narrow the matrix with e.g. -Djmh.args="-f 1 -p sectionSize=500 -p historyDepth=100 checkIn"
+ * and add -Dbench.mongo.uri=mongodb://localhost:27017 to use a local mongod instead of the
+ * in-memory stand-in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AttendanceServiceBenchmark {
+
+    @Param({"50", "500", "5000"})
+    int sectionSize;
+
+    @Param({"10", "100", "500"})
+    int historyDepth;
+
+    private BenchmarkBackend backend;
+    private AttendanceService attendanceService;
+    private StudentSectionsController studentSectionsController;
+
+    private List<String> students;
+    private String historyToken;
+    private String duplicateToken;
+
+    private String checkInToken;
+    private int nextStudent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        attendanceService = backend.bean(AttendanceService.class);
+        studentSectionsController = backend.bean(StudentSectionsController.class);
+
+        students = backend.seed(sectionSize, historyDepth);
+        historyToken = "history-" + (historyDepth - 1);
+
+        duplicateToken = attendanceService.generateToken("bench", BenchmarkBackend.BENCH_SECTION, "Duplicate").qrToken();
+        attendanceService.checkIn(duplicateToken, students.get(0));
+
+        openCheckInSession();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backend.close();
+    }
+
+    private void openCheckInSession() {
+        checkInToken = attendanceService.generateToken("bench", BenchmarkBackend.BENCH_SECTION, "Check-in").qrToken();
+        nextStudent = 0;
+    }
+
+    /**
+     * A first scan by a student; a new session is opened once every student has checked in.
+     */
+    @Benchmark
+    public AttendanceResponse checkIn() {
+        if (nextStudent == students.size()) {
+            openCheckInSession();
+        }
+        return attendanceService.checkIn(checkInToken, students.get(nextStudent++));
+    }
+
+    @Benchmark
+    public AttendanceResponse duplicateCheckIn() {
+        return attendanceService.checkIn(duplicateToken, students.get(0));
+    }
+
+    @Benchmark
+    public TokenResponse generateToken() {
+        return attendanceService.generateToken("bench", BenchmarkBackend.BENCH_SECTION, "Generated");
+    }
+
+    @Benchmark
+    public Optional<CheckInDelta> getCheckInRecords() {
+        return attendanceService.getCheckInRecords(historyToken, null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> getActiveSessions() {
+        return attendanceService.getActiveSessions();
+    }
+
+    @Benchmark
+    public void studentsGroupedBySection() throws IOException {
+        // Through the streamed response body, so JSON encoding is part of the measurement.
+        studentSectionsController.getStudentsGroupedBySection().getBody().writeTo(OutputStream.nullOutputStream());
+    }
+}
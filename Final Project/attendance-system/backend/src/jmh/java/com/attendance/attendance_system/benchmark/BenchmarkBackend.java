@@ -0,0 +1,148 @@
+package com.attendance.attendance_system.benchmark;
+
+import com.attendance.attendance_system.AttendanceSystemApplication;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.model.User;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against an in-memory Mongo stand-in (mongo-java-server), or against a
+ * real mongod when -Dbench.mongo.uri=mongodb://host:port is given. Every backend uses a fresh
+ * database so runs never see each other's data. The stand-in does not build secondary indexes,
+ * so query-bound numbers are only meaningful against a real mongod.
+ */
+final class BenchmarkBackend implements AutoCloseable {
+
+    static final List<String> SECTIONS = List.of("A", "B", "C", "D");
+    static final String BENCH_SECTION = "A";
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private final MongoServer server;
+    private final ConfigurableApplicationContext context;
+    private final MongoTemplate mongoTemplate;
+    private final boolean external;
+
+    private BenchmarkBackend(MongoServer server, ConfigurableApplicationContext context, boolean external) {
+        this.server = server;
+        this.context = context;
+        this.mongoTemplate = context.getBean(MongoTemplate.class);
+        this.external = external;
+    }
+
+    static BenchmarkBackend start() {
+        String uri = System.getProperty("bench.mongo.uri");
+        MongoServer server = null;
+        if (uri == null) {
+            server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            uri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+        }
+        String database = "attendance_bench_" + System.nanoTime();
+
+        // Passed as arguments so they win over application.properties.
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AttendanceSystemApplication.class)
+                .run("--spring.data.mongodb.uri=" + uri + "/" + database,
+                        "--spring.data.mongodb.database=" + database,
+                        "--server.port=0",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        // Trials outlive the default 30 s QR rotation.
+                        "--attendance.qr.rotate-seconds=86400",
+                        // mongo-java-server has no explain command and ignores secondary indexes.
+                        "--logging.level.com.attendance.attendance_system.config.MongoIndexInitializer=ERROR",
+                        "--logging.level.de.bwaldvogel=OFF");
+        return new BenchmarkBackend(server, context, server == null);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Seeds sectionSize students in each of SECTIONS, plus historyDepth past sessions for
+     * BENCH_SECTION with one record per student (every other one present).
+     *
+     * @return the ids of the students in BENCH_SECTION
+     */
+    List<String> seed(int sectionSize, int historyDepth) {
+        List<String> benchStudents = new ArrayList<>(sectionSize);
+        List<User> users = new ArrayList<>();
+        for (String section : SECTIONS) {
+            for (int i = 0; i < sectionSize; i++) {
+                User user = new User();
+                user.setName("Student " + section + i);
+                user.setEmail("student" + section + i + "@bench.local");
+                user.setPassword("bench");
+                user.setSection(section);
+                users.add(user);
+            }
+        }
+        insertAll(users, User.class);
+        users.stream()
+                .filter(user -> BENCH_SECTION.equals(user.getSection()))
+                .forEach(user -> benchStudents.add(user.getId()));
+
+        LocalDateTime start = LocalDateTime.now().minusDays(historyDepth + 1L);
+        List<Session> sessions = new ArrayList<>(historyDepth);
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (int s = 0; s < historyDepth; s++) {
+            LocalDateTime createdAt = start.plusDays(s);
+            String token = "history-" + s;
+            sessions.add(Session.builder()
+                    .sessionToken(token)
+                    .sessionName("Lecture " + s)
+                    .section(BENCH_SECTION)
+                    .createdBy("bench")
+                    .createdAt(createdAt)
+                    .expiresAt(createdAt.plusMinutes(5))
+                    .active(false)
+                    .build());
+            for (int i = 0; i < benchStudents.size(); i++) {
+                boolean present = i % 2 == 0;
+                records.add(AttendanceRecord.builder()
+                        .sessionId(token)
+                        .userId(benchStudents.get(i))
+                        .sessionName("Lecture " + s)
+                        .section(BENCH_SECTION)
+                        .present(present)
+                        .joinTime(present ? createdAt.plusMinutes(1) : null)
+                        .build());
+                if (records.size() >= INSERT_BATCH) {
+                    insertAll(records, AttendanceRecord.class);
+                    records.clear();
+                }
+            }
+        }
+        insertAll(sessions, Session.class);
+        insertAll(records, AttendanceRecord.class);
+        return benchStudents;
+    }
+
+    private <T> void insertAll(List<T> documents, Class<T> type) {
+        for (int from = 0; from < documents.size(); from += INSERT_BATCH) {
+            mongoTemplate.insert(documents.subList(from, Math.min(from + INSERT_BATCH, documents.size())), type);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (external) {
+            mongoTemplate.getDb().drop();
+        }
+        context.close();
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.attendance.attendance_system.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The reference numbers a burst is compared against. Latencies may grow and throughput may
+ * drop by the tolerance before the run fails; the error rate may not grow at all.
+ */
+final class Baseline {
+
+    private final Properties values;
+
+    private Baseline(Properties values) {
+        this.values = values;
+    }
+
+    static Baseline read(Path file) throws IOException {
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            values.load(reader);
+        }
+        return new Baseline(values);
+    }
+
+    static void write(Path file, Map<String, String> parameters, BurstResult result) throws IOException {
+        Properties values = new Properties();
+        parameters.forEach(values::setProperty);
+        values.setProperty("throughput.per-second", format(result.throughput()));
+        values.setProperty("latency.p50.ms", format(result.percentileMillis(0.50)));
+        values.setProperty("latency.p99.ms", format(result.percentileMillis(0.99)));
+        values.setProperty("latency.p999.ms", format(result.percentileMillis(0.999)));
+        values.setProperty("error-rate", format(result.errorRate()));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            values.store(writer, "QR burst baseline; regenerate with update-baseline=true on the machine that runs the check");
+        }
+    }
+
+    List<String> compare(Map<String, String> parameters, BurstResult result, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        parameters.forEach((key, value) -> {
+            if (!value.equals(values.getProperty(key))) {
+                regressions.add(key + "=" + value + " but the baseline was recorded with " + key + "=" + values.getProperty(key));
+            }
+        });
+        if (!regressions.isEmpty()) {
+            return regressions;
+        }
+
+        double minThroughput = number("throughput.per-second") * (1 - tolerance);
+        if (result.throughput() < minThroughput) {
+            regressions.add(String.format(Locale.ROOT, "throughput %.1f/s is below %.1f/s", result.throughput(), minThroughput));
+        }
+        checkLatency(regressions, "p50", result.percentileMillis(0.50), tolerance);
+        checkLatency(regressions, "p99", result.percentileMillis(0.99), tolerance);
+        checkLatency(regressions, "p999", result.percentileMillis(0.999), tolerance);
+        if (result.errorRate() > number("error-rate")) {
+            regressions.add(String.format(Locale.ROOT, "error rate %.4f is above %.4f", result.errorRate(), number("error-rate")));
+        }
+        return regressions;
+    }
+
+    private void checkLatency(List<String> regressions, String percentile, double actual, double tolerance) {
+        double max = number("latency." + percentile + ".ms") * (1 + tolerance);
+        if (actual > max) {
+            regressions.add(String.format(Locale.ROOT, "%s latency %.2f ms is above %.2f ms", percentile, actual, max));
+        }
+    }
+
+    private double number(String key) {
+        String value = values.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Baseline is missing " + key);
+        }
+        return Double.parseDouble(value);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
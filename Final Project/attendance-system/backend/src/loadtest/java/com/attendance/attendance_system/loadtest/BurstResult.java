@@ -0,0 +1,105 @@
+package com.attendance.attendance_system.loadtest;
+
+import org.springframework.http.HttpStatus;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes of one burst: the latency each student saw (including retries) and the final
+ * AttendanceResponse status of every check-in.
+ */
+final class BurstResult {
+
+    static final String TRANSPORT_ERROR = "TRANSPORT_ERROR";
+    static final String CONFLICT_AFTER_RETRY = "CONFLICT_AFTER_RETRY";
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder retries = new LongAdder();
+    private long elapsedNanos;
+
+    BurstResult(int expected) {
+        this.latencies = new long[expected];
+    }
+
+    void record(String status, long latencyNanos) {
+        latencies[recorded.getAndIncrement()] = latencyNanos;
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        Arrays.sort(latencies, 0, recorded.get());
+    }
+
+    int count() {
+        return recorded.get();
+    }
+
+    double throughput() {
+        return count() / (elapsedNanos / 1e9);
+    }
+
+    double percentileMillis(double percentile) {
+        int count = count();
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return latencies[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * Share of check-ins that did not end in a 2xx AttendanceResponse. Every student scans once,
+     * so a duplicate or missing record is as much a failure as a timeout; only a 409 answering
+     * a retry counts as success, since it means an earlier attempt was recorded.
+     */
+    double errorRate() {
+        if (count() == 0) {
+            return 0;
+        }
+        long failed = statuses.entrySet().stream()
+                .filter(entry -> !isSuccess(entry.getKey()))
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+        return (double) failed / count();
+    }
+
+    Map<String, Long> statusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    void print(PrintStream out) {
+        out.printf("Check-ins:   %d in %d ms (%.1f/s), %d retries%n",
+                count(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), throughput(), retries.sum());
+        out.printf("Latency:     p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms%n",
+                percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999), percentileMillis(1.0));
+        out.printf("Error rate:  %.4f%n", errorRate());
+        statusCounts().forEach((status, count) -> out.printf("  %-24s %d%n", status, count));
+    }
+
+    private static boolean isSuccess(String status) {
+        if (CONFLICT_AFTER_RETRY.equals(status)) {
+            return true;
+        }
+        try {
+            return HttpStatus.valueOf(status).is2xxSuccessful();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
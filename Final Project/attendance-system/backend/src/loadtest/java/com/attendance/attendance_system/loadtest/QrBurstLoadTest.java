@@ -0,0 +1,318 @@
+package com.attendance.attendance_system.loadtest;
+
+import com.attendance.attendance_system.AttendanceSystemApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a lecture's QR burst over HTTP: students sign up, an admin opens a session through
+ * /api/admin/generate-token, then every student posts the QR value currently on screen to
+ * /api/attendance/check-in with its X-User-Id at a random moment inside the scan window.
+ *
+ * Run with: mvn -Ploadtest test-compile exec:exec [-Dloadtest.args="students=2000 window-ms=500"]
+ *
+ * Without base-url the application is started in-process on a random port against an in-memory
+ * Mongo (mongo-java-server). With base-url=http://localhost:8080 it drives an already running
+ * backend and whatever Mongo that backend uses. The process exits with 1 when the run regresses
+ * against the baseline file, and update-baseline=true rewrites that file from the current run.
+ */
+public final class QrBurstLoadTest {
+
+    private static final String SECTION = "A";
+    private static final String USER_HEADER = "X-User-Id";
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final String baseUrl;
+
+    private QrBurstLoadTest(Map<String, String> options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.get("base-url");
+
+        MongoServer mongo = null;
+        ConfigurableApplicationContext app = null;
+        if (baseUrl == null) {
+            mongo = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = mongo.bind();
+            app = startApplication("mongodb://" + address.getHostString() + ":" + address.getPort(), options);
+            baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+
+        boolean passed;
+        try {
+            passed = new QrBurstLoadTest(options, baseUrl).run();
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (mongo != null) {
+                mongo.shutdown();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext startApplication(String mongoUri, Map<String, String> options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.data.mongodb.uri=" + mongoUri + "/attendance_loadtest",
+                "--spring.data.mongodb.database=attendance_loadtest",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                // mongo-java-server has no explain command and ignores secondary indexes.
+                "--logging.level.com.attendance.attendance_system.config.MongoIndexInitializer=ERROR",
+                "--logging.level.de.bwaldvogel=OFF"));
+        // Anything prefixed with app. is handed to the application, e.g. app.attendance.check-in.batch.enabled=true
+        options.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                args.add("--" + key.substring(4) + "=" + value);
+            }
+        });
+        // Devtools would relaunch main() in a restart class loader; it only reads the system property.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(AttendanceSystemApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private boolean run() throws Exception {
+        int students = intOption("students", 500);
+        int warmup = intOption("warmup", Math.min(students, 200));
+        long windowMillis = intOption("window-ms", 1000);
+
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<String> userIds = signUp(runId, students);
+        System.out.printf("Signed up %d students against %s%n", userIds.size(), baseUrl);
+
+        if (warmup > 0) {
+            burst(generateToken("warmup-" + runId), userIds.subList(0, warmup), windowMillis);
+        }
+        BurstResult result = burst(generateToken("burst-" + runId), userIds, windowMillis);
+        result.print(System.out);
+
+        Path baselineFile = Path.of(options.getOrDefault("baseline", "src/loadtest/qr-burst-baseline.properties"));
+        Map<String, String> parameters = Map.of("students", Integer.toString(students), "window-ms", Long.toString(windowMillis));
+        if (Boolean.parseBoolean(options.get("update-baseline"))) {
+            Baseline.write(baselineFile, parameters, result);
+            System.out.println("Baseline written to " + baselineFile);
+            return true;
+        }
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.25"));
+        List<String> regressions = Baseline.read(baselineFile).compare(parameters, result, tolerance);
+        regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+        return regressions.isEmpty();
+    }
+
+    private List<String> signUp(String runId, int students) throws Exception {
+        // Setup, not part of the measurement: keep it well inside the server's Mongo pool.
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<Future<String>> ids = new ArrayList<>(students);
+            for (int i = 0; i < students; i++) {
+                String email = "loadtest-" + runId + "-" + i + "@example.com";
+                String body = objectMapper.writeValueAsString(Map.of("name", "Load Test " + i, "email", email, "password", "loadtest"));
+                ids.add(executor.submit(() -> post("/api/auth/signup", Map.of(), body).path("id").asText()));
+            }
+            List<String> userIds = new ArrayList<>(students);
+            for (Future<String> id : ids) {
+                userIds.add(id.get());
+            }
+            return userIds;
+        }
+    }
+
+    private JsonNode generateToken(String sessionName) throws IOException, InterruptedException {
+        String path = "/api/admin/generate-token?section=" + SECTION
+                + "&sessionName=" + URLEncoder.encode(sessionName, StandardCharsets.UTF_8);
+        return post(path, Map.of(), "");
+    }
+
+    private JsonNode post(String path, Map<String, String> headers, String body) throws IOException, InterruptedException {
+        return send(request(path, headers, body));
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(10)).GET().build());
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest request(String path, Map<String, String> headers, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        headers.forEach(builder::header);
+        return builder.build();
+    }
+
+    /**
+     * Every student scans once at a random offset inside the window. Retries follow the
+     * frontend's fetchWithRetry: up to retries attempts with exponential backoff, but only for
+     * transport failures and 5xx responses, which the server reports as "try again".
+     */
+    private BurstResult burst(JsonNode session, List<String> userIds, long windowMillis) throws Exception {
+        int retries = intOption("retries", 3);
+        long retryBaseMillis = intOption("retry-base-ms", 100);
+        DisplayedQr qr = new DisplayedQr(session);
+
+        BurstResult result = new BurstResult(userIds.size());
+        long start = System.nanoTime();
+        try (qr; ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String userId : userIds) {
+                long offsetNanos = windowMillis == 0 ? 0
+                        : TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(windowMillis));
+                executor.submit(() -> {
+                    sleepUntil(start + offsetNanos);
+                    checkIn(userId, qr, retries, retryBaseMillis, result);
+                    return null;
+                });
+            }
+        }
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+
+    private void checkIn(String userId, DisplayedQr qr, int retries, long retryBaseMillis, BurstResult result)
+            throws InterruptedException {
+        long sent = System.nanoTime();
+        String outcome = null;
+        for (int attempt = 0; attempt < retries; attempt++) {
+            if (attempt > 0) {
+                result.retried();
+                TimeUnit.MILLISECONDS.sleep((1L << (attempt - 1)) * retryBaseMillis);
+            }
+            try {
+                // Every attempt is a fresh scan of whatever the screen shows now.
+                HttpRequest request = request("/api/attendance/check-in", Map.of(USER_HEADER, userId), qr.body());
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                outcome = statusOf(response);
+                if (attempt > 0 && response.statusCode() == 409) {
+                    // An earlier attempt timed out on our side but was recorded by the server.
+                    outcome = BurstResult.CONFLICT_AFTER_RETRY;
+                }
+                if (response.statusCode() < 500) {
+                    break;
+                }
+            } catch (IOException e) {
+                outcome = BurstResult.TRANSPORT_ERROR;
+            }
+        }
+        result.record(outcome, System.nanoTime() - sent);
+    }
+
+    /**
+     * The QR code on the lecture screen: the signed value is re-fetched whenever the server
+     * says the next one is due, as the admin page does.
+     */
+    private final class DisplayedQr implements AutoCloseable {
+
+        private final String sessionToken;
+        private final Thread refresher;
+        private volatile String body;
+
+        DisplayedQr(JsonNode session) throws IOException {
+            this.sessionToken = session.path("token").asText();
+            this.body = bodyFor(session.path("qrToken").asText());
+            this.refresher = Thread.ofVirtual().start(this::refresh);
+        }
+
+        String body() {
+            return body;
+        }
+
+        private void refresh() {
+            try {
+                while (true) {
+                    JsonNode current = get("/api/admin/sessions/" + sessionToken + "/qr-token");
+                    body = bodyFor(current.path("qrToken").asText());
+                    TimeUnit.SECONDS.sleep(Math.max(1, current.path("refreshInSeconds").asLong()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.out.println("Stopped refreshing the QR code: " + e.getMessage());
+            }
+        }
+
+        private String bodyFor(String qrToken) throws IOException {
+            return objectMapper.writeValueAsString(Map.of("token", qrToken));
+        }
+
+        @Override
+        public void close() {
+            refresher.interrupt();
+        }
+    }
+
+    private String statusOf(HttpResponse<String> response) {
+        try {
+            JsonNode status = objectMapper.readTree(response.body()).path("status");
+            if (status.isTextual()) {
+                return status.asText();
+            }
+        } catch (IOException ignored) {
+            // Not an AttendanceResponse, e.g. a Spring error page.
+        }
+        return "HTTP_" + response.statusCode();
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private int intOption(String key, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(key, Integer.toString(defaultValue)));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
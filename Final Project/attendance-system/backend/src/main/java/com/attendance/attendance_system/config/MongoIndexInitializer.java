@@ -0,0 +1,228 @@
+package com.attendance.attendance_system.config;
+
+import com.attendance.attendance_system.model.AttendanceEvent;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.AttendanceSummary;
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.model.User;
+import com.attendance.attendance_system.repository.AttendanceRecordRepository;
+import com.attendance.attendance_system.repository.SessionRepository;
+import com.attendance.attendance_system.repository.UserRepository;
+import com.attendance.attendance_system.service.AttendanceEventLog;
+import com.attendance.attendance_system.service.AttendanceService;
+import com.attendance.attendance_system.service.AttendanceSummaries;
+import com.attendance.attendance_system.service.UserService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on the mapped documents, then checks they exist and that every
+ * repository query is served by one. Runs off the startup thread so the app still comes up
+ * (and logs a warning) when Mongo is unreachable.
+ *
+ * The query check runs each repository query once with placeholder arguments, captures the
+ * commands it sends through a driver listener and explains exactly those, so a probe cannot
+ * drift from the query it stands for.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(User.class, Session.class, AttendanceRecord.class,
+            AttendanceSummary.class, AttendanceEvent.class);
+
+    private static final Set<String> READ_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    private static final Set<String> EXPLAINED_FIELDS = Set.of("find", "aggregate", "count", "distinct", "filter",
+            "query", "key", "sort", "projection", "hint", "skip", "limit", "pipeline", "cursor", "collation");
+    private static final ThreadLocal<List<BsonDocument>> CAPTURED = new ThreadLocal<>();
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final SessionRepository sessionRepository;
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final UserService userService;
+    private final AttendanceSummaries attendanceSummaries;
+    private final AttendanceEventLog attendanceEventLog;
+
+    /**
+     * Hands the read commands issued on a probing thread to verifyQueryPlans. Listeners run on
+     * the calling thread, so every other thread only pays the ThreadLocal lookup.
+     */
+    @Bean
+    static MongoClientSettingsBuilderCustomizer queryCaptureCustomizer() {
+        return settings -> settings.addCommandListener(new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                List<BsonDocument> captured = CAPTURED.get();
+                if (captured != null && READ_COMMANDS.contains(event.getCommandName())) {
+                    captured.add(event.getCommand().clone());
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofPlatform().name("mongo-index-init").daemon().start(() -> {
+            createIndexes();
+            verifyQueryPlans();
+        });
+    }
+
+    void createIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> type : INDEXED_DOCUMENTS) {
+            String collection = mongoTemplate.getCollectionName(type);
+            IndexOperations indexOps = mongoTemplate.indexOps(type);
+            List<IndexDefinition> declared = new ArrayList<>();
+            resolver.resolveIndexFor(type).forEach(declared::add);
+            // One at a time, so an index that cannot be built (a unique index over duplicate
+            // data, say) does not keep the others from being created.
+            for (IndexDefinition index : declared) {
+                try {
+                    indexOps.createIndex(index);
+                } catch (RuntimeException e) {
+                    log.warn("Could not create index {} on {}", index.getIndexKeys(), collection, e);
+                }
+            }
+
+            try {
+                Set<String> existing = indexOps.getIndexInfo().stream()
+                        .map(IndexInfo::getName)
+                        .collect(Collectors.toSet());
+                List<String> missing = declared.stream()
+                        .map(index -> index.getIndexOptions().getString("name"))
+                        .filter(name -> name != null && !existing.contains(name))
+                        .toList();
+                if (missing.isEmpty()) {
+                    log.info("Indexes verified for {}", collection);
+                } else {
+                    log.error("Indexes missing on {}: {}", collection, missing);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not list indexes of {}", collection, e);
+            }
+        }
+    }
+
+    /**
+     * One probe per repository query; argument values are placeholders, only the plan shape
+     * matters.
+     */
+    private Map<String, Runnable> repositoryQueries() {
+        String id = new ObjectId().toHexString();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> probes = new LinkedHashMap<>();
+        probes.put("UserRepository.findByEmail", () -> userRepository.findByEmail("probe"));
+        probes.put("UserRepository.findBySection", () -> userRepository.findBySection("probe"));
+        probes.put("UserService.pageSection", () -> userService.pageSection("probe", id, 1));
+        probes.put("SessionRepository.findBySessionToken", () -> sessionRepository.findBySessionToken("probe"));
+        probes.put("SessionRepository.findBySection", () -> sessionRepository.findBySection("probe"));
+        probes.put("SessionRepository.findByCreatedBy", () -> sessionRepository.findByCreatedBy("probe"));
+        probes.put("SessionRepository.findByActiveTrue", sessionRepository::findByActiveTrue);
+        probes.put("SessionRepository.findByExpiresAtBeforeOrderByExpiresAtDesc",
+                () -> sessionRepository.findByExpiresAtBeforeOrderByExpiresAtDesc(now, PageRequest.of(0, 1)));
+        probes.put("AttendanceRecordRepository.findBySessionIdAndUserId",
+                () -> attendanceRecordRepository.findBySessionIdAndUserId("probe", "probe"));
+        probes.put("AttendanceRecordRepository.findBySessionIdAndPresentTrue",
+                () -> attendanceRecordRepository.findBySessionIdAndPresentTrue("probe"));
+        probes.put("AttendanceRecordRepository.findByUserIdOrderByJoinTimeDesc",
+                () -> attendanceRecordRepository.findByUserIdOrderByJoinTimeDesc("probe"));
+        probes.put("AttendanceService.getCheckInRecords",
+                () -> mongoTemplate.find(AttendanceService.checkInsQuery("probe", now), AttendanceRecord.class));
+        probes.put("AttendanceSummaries.forStudent", () -> attendanceSummaries.forStudent("probe", "probe"));
+        probes.put("AttendanceSummaries.forSection", () -> attendanceSummaries.forSection("probe"));
+        probes.put("AttendanceEventLog.page(user)", () -> attendanceEventLog.page("probe", null, null, id, 1));
+        probes.put("AttendanceEventLog.page(session)", () -> attendanceEventLog.page(null, "probe", null, id, 1));
+        probes.put("AttendanceEventLog.page(section)", () -> attendanceEventLog.page(null, null, "probe", id, 1));
+        return probes;
+    }
+
+    void verifyQueryPlans() {
+        repositoryQueries().forEach((name, probe) -> {
+            List<BsonDocument> commands = new ArrayList<>();
+            CAPTURED.set(commands);
+            try {
+                probe.run();
+            } catch (RuntimeException e) {
+                log.warn("Could not run {}", name, e);
+                return;
+            } finally {
+                CAPTURED.remove();
+            }
+            for (BsonDocument command : commands) {
+                try {
+                    BsonDocument query = new BsonDocument();
+                    command.forEach((field, value) -> {
+                        if (EXPLAINED_FIELDS.contains(field)) {
+                            query.append(field, value);
+                        }
+                    });
+                    Document explain = mongoTemplate.getDb().runCommand(new BsonDocument("explain", query)
+                            .append("verbosity", new BsonString("queryPlanner")));
+                    List<Object> winningPlans = new ArrayList<>();
+                    collectWinningPlans(explain, winningPlans);
+                    if (winningPlans.stream().anyMatch(MongoIndexInitializer::usesCollectionScan)) {
+                        log.error("{} falls back to COLLSCAN: {}", name, winningPlans);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not explain {}", name, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * A find has one winning plan at the top; an aggregation has one per cursor stage.
+     */
+    private static void collectWinningPlans(Object explain, List<Object> plans) {
+        if (explain instanceof Document document) {
+            document.forEach((field, value) -> {
+                if ("winningPlan".equals(field)) {
+                    plans.add(value);
+                } else {
+                    collectWinningPlans(value, plans);
+                }
+            });
+        } else if (explain instanceof List<?> values) {
+            values.forEach(value -> collectWinningPlans(value, plans));
+        }
+    }
+
+    private static boolean usesCollectionScan(Object plan) {
+        if (plan instanceof Document stage) {
+            return "COLLSCAN".equals(stage.get("stage"))
+                    || stage.values().stream().anyMatch(MongoIndexInitializer::usesCollectionScan);
+        }
+        if (plan instanceof List<?> stages) {
+            return stages.stream().anyMatch(MongoIndexInitializer::usesCollectionScan);
+        }
+        return false;
+    }
+}
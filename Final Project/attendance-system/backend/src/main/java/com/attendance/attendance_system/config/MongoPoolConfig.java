@@ -0,0 +1,47 @@
+package com.attendance.attendance_system.config;
+
+import com.mongodb.MongoTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the Mongo driver's connection pool. On platform threads Tomcat's 200 workers cap how
+ * many requests wait for a connection; with spring.threads.virtual.enabled=true every request
+ * gets its own thread and the pool is the only limit, so the wait for a connection is kept short
+ * and a burst is answered with 503 instead of queueing for the driver's two-minute default.
+ */
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${attendance.mongo.pool.max-size:100}") int maxSize,
+            @Value("${attendance.mongo.pool.min-size:0}") int minSize,
+            @Value("${attendance.mongo.pool.max-connecting:2}") int maxConnecting,
+            @Value("${attendance.mongo.pool.max-wait-ms:2000}") long maxWaitMillis) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Whether the failure is the pool's wait for a free connection running out, as opposed to
+     * Mongo being unreachable (server selection, which also ends in MongoTimeoutException) or any
+     * other error. The driver has no dedicated type for it, only this message.
+     */
+    public static boolean isPoolWaitTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException && cause.getMessage() != null
+                    && cause.getMessage().contains("while waiting for a connection to server")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
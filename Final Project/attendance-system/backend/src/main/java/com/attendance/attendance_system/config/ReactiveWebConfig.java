@@ -0,0 +1,30 @@
+package com.attendance.attendance_system.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux setup for the reactive profile. Check-ins are served on Netty's event loops; the
+ * admin, student and auth controllers still call blocking repositories, so any controller
+ * method that does not return a reactive type is run on a virtual thread instead.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    // Tomcat is on the classpath too and would otherwise be picked as the reactive server.
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(new VirtualThreadTaskExecutor("webflux-blocking-"));
+    }
+}
@@ -1,10 +1,21 @@
 package com.attendance.attendance_system.controller;
 
+import com.attendance.attendance_system.dto.AttendanceStats;
+import com.attendance.attendance_system.dto.CheckInDelta;
+import com.attendance.attendance_system.dto.MigrationReport;
+import com.attendance.attendance_system.dto.QrTokenResponse;
+import com.attendance.attendance_system.dto.RosterEntry;
+import com.attendance.attendance_system.dto.SessionCounts;
 import com.attendance.attendance_system.dto.TokenResponse;
+import com.attendance.attendance_system.service.AttendanceMigrationService;
 import com.attendance.attendance_system.service.AttendanceService;
+import com.attendance.attendance_system.service.AttendanceSummaries;
+import com.attendance.attendance_system.service.SessionCounters;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +30,9 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AdminController {
     private final AttendanceService attendanceService;
+    private final AttendanceMigrationService attendanceMigrationService;
+    private final SessionCounters sessionCounters;
+    private final AttendanceSummaries attendanceSummaries;
     private static final String ADMIN = "admin";
 
     @GetMapping("/sessions")
@@ -27,6 +41,73 @@ public class AdminController {
         return ResponseEntity.ok(sessions);
     }
 
+    @GetMapping("/sessions/history")
+    public ResponseEntity<List<Map<String, Object>>> getSessionHistory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(attendanceService.getSessionHistory(page, Math.min(size, 100)));
+    }
+
+    @GetMapping("/sessions/{token}/qr-token")
+    public ResponseEntity<QrTokenResponse> getQrToken(@PathVariable String token) {
+        return attendanceService.currentQrToken(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/attendance/{token}")
+    public ResponseEntity<CheckInDelta> getCheckInRecords(
+            @PathVariable String token,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return attendanceService.getCheckInRecords(token, since)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/sessions/{token}/counts")
+    public ResponseEntity<SessionCounts> getCounts(@PathVariable String token) {
+        return sessionCounters.read(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/sessions/{token}/counts/reconcile")
+    public ResponseEntity<SessionCounts> reconcileCounts(@PathVariable String token) {
+        return sessionCounters.reconcile(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/reports/sections/{section}/attendance")
+    public ResponseEntity<List<AttendanceStats>> getSectionAttendance(@PathVariable String section) {
+        return ResponseEntity.ok(attendanceSummaries.forSection(section));
+    }
+
+    @PostMapping("/reports/attendance/verify")
+    public ResponseEntity<Void> verifyAttendanceSummaries() {
+        attendanceSummaries.verify();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/sessions/{token}/roster")
+    public ResponseEntity<List<RosterEntry>> getRoster(@PathVariable String token) {
+        return attendanceService.getRoster(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/sessions/{token}/absentees")
+    public ResponseEntity<List<RosterEntry>> getAbsentees(@PathVariable String token) {
+        return attendanceService.getAbsentees(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/migrations/attendance")
+    public ResponseEntity<MigrationReport> migrateAttendance() {
+        return ResponseEntity.ok(attendanceMigrationService.migrateEmbeddedRecords());
+    }
+
     @PostMapping("/generate-token")
     public ResponseEntity<TokenResponse> generateToken(@RequestParam String section, @RequestParam String sessionName) {
         String adminId = ADMIN;
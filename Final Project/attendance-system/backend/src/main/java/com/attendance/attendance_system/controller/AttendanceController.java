@@ -3,11 +3,13 @@ package com.attendance.attendance_system.controller;
 import com.attendance.attendance_system.dto.AttendanceResponse;
 import com.attendance.attendance_system.dto.TokenRequest;
 import com.attendance.attendance_system.service.AttendanceService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/attendance")
 @CrossOrigin(origins = "http://localhost:5173", methods = {RequestMethod.POST, RequestMethod.GET, RequestMethod.OPTIONS}, allowedHeaders = "*")
 public class AttendanceController {
@@ -0,0 +1,51 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.service.AttendanceReports;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Section attendance sheet downloads, written while Mongo is still reading them.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/admin/reports")
+public class AttendanceReportController {
+
+    private final AttendanceReports attendanceReports;
+
+    public AttendanceReportController(AttendanceReports attendanceReports) {
+        this.attendanceReports = attendanceReports;
+    }
+
+    /**
+     * ?format=csv (the default) or ndjson, which is gzip-compressed. from and to are inclusive
+     * ISO dates and limit the sessions included.
+     */
+    @GetMapping("/sections/{section}/attendance/export")
+    public ResponseEntity<StreamingResponseBody> exportSectionAttendance(
+            @PathVariable String section,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        AttendanceReports.Format reportFormat = AttendanceReports.Format.parse(format);
+        if (reportFormat == null || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> attendanceReports.export(section, from, to, reportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(reportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(reportFormat.fileName(section)).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,84 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.service.AttendanceService;
+import com.attendance.attendance_system.service.CheckInFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Live check-ins of a session as Server-Sent Events: a "check-in" event per student (the same
+ * shape as the records list), "reset" when the client must reload the list, and "closed" when
+ * the session ends. Browsers resend Last-Event-ID on reconnect and get what they missed.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5173", methods = {RequestMethod.GET, RequestMethod.OPTIONS}, allowedHeaders = "*")
+public class CheckInFeedController {
+
+    private final AttendanceService attendanceService;
+    private final CheckInFeed checkInFeed;
+    private final long timeoutMillis;
+
+    public CheckInFeedController(AttendanceService attendanceService,
+                                 CheckInFeed checkInFeed,
+                                 @Value("${attendance.feed.timeout-ms:1800000}") long timeoutMillis) {
+        this.attendanceService = attendanceService;
+        this.checkInFeed = checkInFeed;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @GetMapping(path = "/sessions/{token}/check-ins", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> watchCheckIns(
+            @PathVariable String token,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        Optional<Session> session = attendanceService.findOpenSession(token);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Runnable unsubscribe = checkInFeed.subscribe(session.get(), lastEventId, new EmitterViewer(emitter));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private record EmitterViewer(SseEmitter emitter) implements CheckInFeed.Viewer {
+
+        @Override
+        public void checkIn(String eventId, String json) throws IOException {
+            emitter.send(SseEmitter.event().id(eventId).name("check-in").data(json, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void reset() throws IOException {
+            emitter.send(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void closed() {
+            try {
+                emitter.send(SseEmitter.event().name("closed").data("{}", MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                // Already gone.
+            }
+        }
+    }
+}
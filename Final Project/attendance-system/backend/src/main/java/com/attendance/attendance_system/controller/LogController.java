@@ -0,0 +1,35 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.dto.LogPage;
+import com.attendance.attendance_system.service.AttendanceEventLog;
+import org.bson.types.ObjectId;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/logs")
+public class LogController {
+
+    private final AttendanceEventLog attendanceEventLog;
+
+    public LogController(AttendanceEventLog attendanceEventLog) {
+        this.attendanceEventLog = attendanceEventLog;
+    }
+
+    /**
+     * The activity log, newest first. Pass the page's next back as before for older entries.
+     */
+    @GetMapping
+    public ResponseEntity<LogPage> getLogs(
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) String session,
+            @RequestParam(required = false) String section,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int size) {
+        if (before != null && !ObjectId.isValid(before)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(attendanceEventLog.page(user, session, section, before, size));
+    }
+}
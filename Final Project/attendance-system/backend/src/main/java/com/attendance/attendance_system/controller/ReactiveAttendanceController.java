@@ -0,0 +1,48 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.dto.AttendanceResponse;
+import com.attendance.attendance_system.dto.TokenRequest;
+import com.attendance.attendance_system.service.ReactiveAttendanceService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * AttendanceController for the reactive profile: same path, headers and responses.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/attendance")
+@CrossOrigin(origins = "http://localhost:5173", methods = {RequestMethod.POST, RequestMethod.GET, RequestMethod.OPTIONS}, allowedHeaders = "*")
+public class ReactiveAttendanceController {
+
+    private final ReactiveAttendanceService attendanceService;
+
+    private static final String userHeader = "X-User-Id";
+
+    public ReactiveAttendanceController(ReactiveAttendanceService attendanceService) {
+        this.attendanceService = attendanceService;
+    }
+
+    @PostMapping("/check-in")
+    public Mono<ResponseEntity<AttendanceResponse>> checkIn(
+            @RequestHeader(value = userHeader, required = false) String userIdHeader,
+            @RequestBody Mono<TokenRequest> request) {
+
+        if (userIdHeader == null || userIdHeader.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new AttendanceResponse("User must be logged in to check attendance.", HttpStatus.UNAUTHORIZED)));
+        }
+
+        return request
+                .flatMap(body -> attendanceService.checkIn(body.token(), userIdHeader))
+                .map(result -> ResponseEntity.status(result.status()).body(result));
+    }
+
+    @RequestMapping(value = "/check-in", method = RequestMethod.OPTIONS)
+    public Mono<ResponseEntity<Void>> handleOptionsCheckIn() {
+        return Mono.just(new ResponseEntity<>(HttpStatus.OK));
+    }
+}
@@ -0,0 +1,60 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.service.AttendanceReports;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+/**
+ * AttendanceReportController for the reactive profile. The sheet is still read through the
+ * blocking driver, on a bounded-elastic thread, and handed to the response as it is written.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/admin/reports")
+public class ReactiveAttendanceReportController {
+
+    private final AttendanceReports attendanceReports;
+
+    public ReactiveAttendanceReportController(AttendanceReports attendanceReports) {
+        this.attendanceReports = attendanceReports;
+    }
+
+    @GetMapping("/sections/{section}/attendance/export")
+    public ResponseEntity<Flux<DataBuffer>> exportSectionAttendance(
+            @PathVariable String section,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        AttendanceReports.Format reportFormat = AttendanceReports.Format.parse(format);
+        if (reportFormat == null || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                attendanceReports.export(section, from, to, reportFormat, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DefaultDataBufferFactory.sharedInstance, Schedulers.boundedElastic()::schedule));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(reportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(reportFormat.fileName(section)).build().toString())
+                .body(body);
+    }
+}
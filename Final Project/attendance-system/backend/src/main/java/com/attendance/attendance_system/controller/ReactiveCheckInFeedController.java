@@ -0,0 +1,78 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.service.CheckInFeed;
+import com.attendance.attendance_system.service.ReactiveAttendanceService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * CheckInFeedController for the reactive profile: same path and events.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5173", methods = {RequestMethod.GET, RequestMethod.OPTIONS}, allowedHeaders = "*")
+public class ReactiveCheckInFeedController {
+
+    private final ReactiveAttendanceService attendanceService;
+    private final CheckInFeed checkInFeed;
+    private final int subscriberBuffer;
+
+    public ReactiveCheckInFeedController(ReactiveAttendanceService attendanceService,
+                                         CheckInFeed checkInFeed,
+                                         @Value("${attendance.feed.subscriber-buffer:1024}") int subscriberBuffer) {
+        this.attendanceService = attendanceService;
+        this.checkInFeed = checkInFeed;
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    @GetMapping(path = "/sessions/{token}/check-ins", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> watchCheckIns(
+            @PathVariable String token,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        return attendanceService.findOpenSession(token)
+                .map(session -> ResponseEntity.ok(Flux.<ServerSentEvent<String>>create(sink -> {
+                            Runnable unsubscribe = checkInFeed.subscribe(session, lastEventId, new SinkViewer(sink));
+                            sink.onDispose(unsubscribe::run);
+                        })
+                        // sink.next never blocks, so the feed's own buffer drains straight into
+                        // this one; a client that lets it fill is disconnected and, on reconnect,
+                        // replays or reloads from its Last-Event-ID.
+                        .onBackpressureBuffer(subscriberBuffer, BufferOverflowStrategy.ERROR)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private record SinkViewer(FluxSink<ServerSentEvent<String>> sink) implements CheckInFeed.Viewer {
+
+        @Override
+        public void checkIn(String eventId, String json) {
+            sink.next(ServerSentEvent.builder(json).id(eventId).event("check-in").build());
+        }
+
+        @Override
+        public void reset() {
+            sink.next(ServerSentEvent.builder("{}").event("reset").build());
+        }
+
+        @Override
+        public void heartbeat() {
+            sink.next(ServerSentEvent.<String>builder().comment("keep-alive").build());
+        }
+
+        @Override
+        public void closed() {
+            sink.next(ServerSentEvent.builder("{}").event("closed").build());
+            sink.complete();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.dto.ImportReport;
+import com.attendance.attendance_system.service.StudentImporter;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+
+/**
+ * StudentImportController for the reactive profile. The import still runs on the blocking
+ * driver, on a bounded-elastic thread reading the body as it arrives.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/students")
+public class ReactiveStudentImportController {
+
+    private final StudentImporter studentImporter;
+
+    public ReactiveStudentImportController(StudentImporter studentImporter) {
+        this.studentImporter = studentImporter;
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public Mono<ResponseEntity<ImportReport>> importCsv(@RequestBody Flux<DataBuffer> body) {
+        return importStudents(body, StudentImporter.Format.CSV);
+    }
+
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", "application/ndjson"})
+    public Mono<ResponseEntity<ImportReport>> importNdjson(@RequestBody Flux<DataBuffer> body) {
+        return importStudents(body, StudentImporter.Format.NDJSON);
+    }
+
+    private Mono<ResponseEntity<ImportReport>> importStudents(Flux<DataBuffer> body, StudentImporter.Format format) {
+        return Mono.fromCallable(() -> {
+                    try (InputStream in = DataBufferUtils.subscriberInputStream(body, 16)) {
+                        return ResponseEntity.ok(studentImporter.importStudents(in, format));
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(StudentImportController.rejected(e));
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
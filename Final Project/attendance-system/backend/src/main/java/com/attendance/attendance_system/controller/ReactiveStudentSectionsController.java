@@ -0,0 +1,58 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.dto.SectionData;
+import com.attendance.attendance_system.dto.StudentPage;
+import com.attendance.attendance_system.dto.StudentSummary;
+import com.attendance.attendance_system.repository.UserRepository;
+import com.attendance.attendance_system.service.UserService;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * StudentSectionsController for the reactive profile: same paths and responses from the same
+ * queries, read through the blocking driver on bounded-elastic threads and encoded as they arrive.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/students")
+public class ReactiveStudentSectionsController {
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    public ReactiveStudentSectionsController(UserRepository userRepository, UserService userService) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+    }
+
+    @GetMapping("/sections")
+    public Flux<SectionData> getStudentsGroupedBySection() {
+        return Flux.fromStream(userRepository::streamStudentsGroupedBySection)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/sections/{section}")
+    public Mono<ResponseEntity<StudentPage>> getSectionPage(
+            @PathVariable String section,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int size) {
+        if (after != null && !ObjectId.isValid(after)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.fromCallable(() -> ResponseEntity.ok(userService.pageSection(section, after, size)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<StudentSummary> exportStudents(@RequestParam(required = false) String section) {
+        return Flux.fromStream(() -> userService.streamStudents(section))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
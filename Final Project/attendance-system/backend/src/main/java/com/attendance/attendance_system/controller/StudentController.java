@@ -1,13 +1,21 @@
 package com.attendance.attendance_system.controller;
 
-import com.attendance.attendance_system.dto.SectionData;
+import com.attendance.attendance_system.dto.AttendanceStats;
 import com.attendance.attendance_system.model.User;
 import com.attendance.attendance_system.repository.UserRepository;
+import com.attendance.attendance_system.service.AttendanceEventLog;
+import com.attendance.attendance_system.service.AttendanceMigrationService;
+import com.attendance.attendance_system.service.AttendanceService;
+import com.attendance.attendance_system.service.AttendanceSummaries;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -17,53 +25,62 @@ public class StudentController {
     @Autowired
     private UserRepository userRepository;
 
-    @GetMapping("/sections")
-    public List<SectionData> getStudentsGroupedBySection() {
-        List<User> allUsers = userRepository.findAll();
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private AttendanceSummaries attendanceSummaries;
+
+    @Autowired
+    private AttendanceEventLog attendanceEventLog;
+
+    @Autowired
+    private AttendanceMigrationService attendanceMigrationService;
 
-        Map<String, List<User>> groupedBySection = allUsers.stream()
-                .collect(Collectors.groupingBy(User::getSection));
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
-        return groupedBySection.entrySet().stream()
-                .map(entry -> new SectionData(entry.getKey(), entry.getValue()))
-                .sorted(Comparator.comparing(SectionData::getSection))
-                .collect(Collectors.toList());
+    @GetMapping("/{userId}/attendance-summary")
+    public ResponseEntity<List<AttendanceStats>> getAttendanceSummary(@PathVariable String userId) {
+        return userRepository.findById(userId)
+                .map(user -> ResponseEntity.ok(attendanceSummaries.forStudent(userId, user.getSection())))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/assign/{userId}")
     public ResponseEntity<User> updateStudentSection(@PathVariable String userId, @RequestBody Map<String, String> payload) {
-        Optional<User> userOptional = userRepository.findById(userId);
-
-        if (userOptional.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
         String newSection = payload.get("newSection");
         if (newSection == null || newSection.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        User user = userOptional.get();
-        user.setSection(newSection);
-        return ResponseEntity.ok(userRepository.save(user));
+        // Only the section is written: a full save would drop fields the User class no longer
+        // maps, such as attendance still embedded from before the migration.
+        User before = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(userId)),
+                new Update().set("section", newSection), User.class);
+        if (before == null) {
+            return ResponseEntity.notFound().build();
+        }
+        attendanceEventLog.sectionAssigned(userId, before.getSection(), newSection);
+        before.setSection(newSection);
+        return ResponseEntity.ok(before);
     }
 
     @PostMapping("/check-in")
     public ResponseEntity<String> markStudentPresent(@RequestParam String userId, @RequestParam String token) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+        if (!userRepository.existsById(userId)) {
             return ResponseEntity.badRequest().body("User not found");
         }
-
-        User user = optionalUser.get();
-        boolean updated = user.markPresent(token);
-
-        if (!updated) {
-            return ResponseEntity.badRequest().body("Session not found for this token");
+        if (!attendanceMigrationService.isComplete()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Attendance records are still being migrated");
         }
 
-        userRepository.save(user);
-        return ResponseEntity.ok("Attendance marked as present");
+        return switch (attendanceService.markPresent(token, userId)) {
+            case MARKED -> ResponseEntity.ok("Attendance marked as present");
+            case ALREADY_PRESENT -> ResponseEntity.ok("Attendance was already marked as present");
+            case NOT_ON_ROSTER -> ResponseEntity.badRequest().body("Student is not on this session's roster");
+            case UNKNOWN_SESSION -> ResponseEntity.badRequest().body("Session not found for this token");
+        };
     }
 
 }
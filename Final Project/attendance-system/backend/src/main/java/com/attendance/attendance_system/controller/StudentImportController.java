@@ -0,0 +1,49 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.dto.ImportReport;
+import com.attendance.attendance_system.service.StudentImporter;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Bulk student import: the request body is read while it uploads, never buffered whole.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/students")
+public class StudentImportController {
+
+    private final StudentImporter studentImporter;
+
+    public StudentImportController(StudentImporter studentImporter) {
+        this.studentImporter = studentImporter;
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCsv(InputStream body) throws IOException {
+        return importStudents(body, StudentImporter.Format.CSV);
+    }
+
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", "application/ndjson"})
+    public ResponseEntity<ImportReport> importNdjson(InputStream body) throws IOException {
+        return importStudents(body, StudentImporter.Format.NDJSON);
+    }
+
+    private ResponseEntity<ImportReport> importStudents(InputStream body, StudentImporter.Format format) throws IOException {
+        try {
+            return ResponseEntity.ok(studentImporter.importStudents(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        }
+    }
+
+    static ImportReport rejected(IllegalArgumentException e) {
+        return new ImportReport(0, 0, 0, List.of(new ImportReport.ImportError(1, null, e.getMessage())));
+    }
+}
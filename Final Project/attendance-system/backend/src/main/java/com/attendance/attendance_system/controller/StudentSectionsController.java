@@ -0,0 +1,83 @@
+package com.attendance.attendance_system.controller;
+
+import com.attendance.attendance_system.dto.SectionData;
+import com.attendance.attendance_system.dto.StudentPage;
+import com.attendance.attendance_system.dto.StudentSummary;
+import com.attendance.attendance_system.repository.UserRepository;
+import com.attendance.attendance_system.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Student listings. None of them builds the full list in memory: /sections is grouped by Mongo
+ * and written a section at a time, /sections/{section} is keyset-paged by _id, and /export
+ * writes NDJSON straight off a cursor.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/students")
+public class StudentSectionsController {
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    public StudentSectionsController(UserRepository userRepository, UserService userService, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/sections")
+    public ResponseEntity<StreamingResponseBody> getStudentsGroupedBySection() {
+        StreamingResponseBody body = out -> {
+            try (Stream<SectionData> sections = userRepository.streamStudentsGroupedBySection();
+                 JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.writeStartArray();
+                for (Iterator<SectionData> it = sections.iterator(); it.hasNext(); ) {
+                    objectMapper.writeValue(json, it.next());
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/sections/{section}")
+    public ResponseEntity<StudentPage> getSectionPage(
+            @PathVariable String section,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int size) {
+        if (after != null && !ObjectId.isValid(after)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.pageSection(section, after, size));
+    }
+
+    /**
+     * Every student (optionally of one section) as newline-delimited JSON, one StudentSummary
+     * per line, in constant memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(required = false) String section) {
+        StreamingResponseBody body = out -> {
+            try (Stream<StudentSummary> students = userService.streamStudents(section)) {
+                for (Iterator<StudentSummary> it = students.iterator(); it.hasNext(); ) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
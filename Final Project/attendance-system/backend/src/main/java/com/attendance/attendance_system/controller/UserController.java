@@ -3,6 +3,8 @@ package com.attendance.attendance_system.controller;
 
 import com.attendance.attendance_system.model.User;
 import com.attendance.attendance_system.repository.UserRepository;
+import com.attendance.attendance_system.service.AttendanceEventLog;
+import com.attendance.attendance_system.service.UserService;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,18 +18,28 @@ public class UserController {
     @Autowired
     private UserRepository repo;
 
+    @Autowired
+    private AttendanceEventLog attendanceEventLog;
+
     @PostMapping("/signup")
     public User signup(@RequestBody User user) {
+        user.setEmail(UserService.normalizeEmail(user.getEmail()));
         if (repo.findByEmail(user.getEmail()).isPresent()) {
             throw new RuntimeException("Email already in use.");
         }
         user.setSection("A");
-        return repo.save(user);
+        User saved = repo.save(user);
+        attendanceEventLog.sectionAssigned(saved.getId(), null, saved.getSection());
+        return saved;
     }
 
     @PostMapping("/login")
     public ResponseEntity<User> login(@RequestBody User loginUser) {
-        Optional<User> foundUser = repo.findByEmail(loginUser.getEmail());
+        Optional<User> foundUser = repo.findByEmail(UserService.normalizeEmail(loginUser.getEmail()));
+        if (foundUser.isEmpty() && loginUser.getEmail() != null) {
+            // Accounts created before emails were normalized.
+            foundUser = repo.findByEmail(loginUser.getEmail());
+        }
 
         if (foundUser.isEmpty()) {
             return ResponseEntity.status(401).build();
@@ -35,7 +47,8 @@ public class UserController {
 
         User user = foundUser.get();
 
-        if (user.getPassword().equals(loginUser.getPassword())) {
+        // Guards accounts stored without a password, which can never log in.
+        if (user.getPassword() != null && user.getPassword().equals(loginUser.getPassword())) {
             return ResponseEntity.ok(user);
         } else {
             return ResponseEntity.status(401).build();
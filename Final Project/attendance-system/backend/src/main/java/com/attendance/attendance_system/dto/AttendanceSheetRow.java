@@ -0,0 +1,26 @@
+package com.attendance.attendance_system.dto;
+
+import java.util.List;
+
+/**
+ * One student's line of a section attendance sheet. present holds the tokens of the sessions
+ * in the sheet they attended.
+ */
+public record AttendanceSheetRow(
+        String userId,
+        String name,
+        String email,
+        String section,
+        int totalSessions,
+        int attended,
+        double percentage,
+        List<String> present
+) {
+
+    public static AttendanceSheetRow of(StudentSummary student, int totalSessions, List<String> present) {
+        AttendanceStats stats = AttendanceStats.of(student.id(), student.name(), student.email(), student.section(),
+                totalSessions, present.size());
+        return new AttendanceSheetRow(student.id(), student.name(), student.email(), student.section(),
+                totalSessions, stats.attended(), stats.percentage(), present);
+    }
+}
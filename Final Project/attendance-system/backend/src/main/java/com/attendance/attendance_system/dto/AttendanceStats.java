@@ -0,0 +1,21 @@
+package com.attendance.attendance_system.dto;
+
+/**
+ * A student's attendance in one section. name and email are only filled in section reports.
+ */
+public record AttendanceStats(
+        String userId,
+        String name,
+        String email,
+        String section,
+        int totalSessions,
+        int attended,
+        double percentage
+) {
+
+    public static AttendanceStats of(String userId, String name, String email, String section,
+                                     int totalSessions, int attended) {
+        double percentage = totalSessions == 0 ? 0 : Math.round(attended * 1000.0 / totalSessions) / 10.0;
+        return new AttendanceStats(userId, name, email, section, totalSessions, attended, percentage);
+    }
+}
@@ -0,0 +1,14 @@
+package com.attendance.attendance_system.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Check-ins after a cursor. Pass cursor back as since to get only newer ones; it is null
+ * until a check-in is old enough to move it.
+ */
+public record CheckInDelta(
+        List<CheckInRecord> records,
+        LocalDateTime cursor
+) {
+}
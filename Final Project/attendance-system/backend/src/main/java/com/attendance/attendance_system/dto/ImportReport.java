@@ -0,0 +1,21 @@
+package com.attendance.attendance_system.dto;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk student import. errors lists at most max-reported-errors rows; failed
+ * counts all of them.
+ */
+public record ImportReport(
+        int rows,
+        int imported,
+        int failed,
+        List<ImportError> errors
+) {
+
+    /**
+     * A row that was not imported. line is the line of the upload the row starts on.
+     */
+    public record ImportError(long line, String email, String reason) {
+    }
+}
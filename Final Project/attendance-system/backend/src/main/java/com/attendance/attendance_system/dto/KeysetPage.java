@@ -0,0 +1,36 @@
+package com.attendance.attendance_system.dto;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Keyset paging shared by the student and activity log pages: the query asks for limit + 1 rows,
+ * the extra one only telling whether there is a next page, whose cursor is the key of the last
+ * row returned.
+ */
+public final class KeysetPage {
+
+    public static final int MAX_SIZE = 500;
+
+    private KeysetPage() {
+    }
+
+    /**
+     * The requested page size clamped to 1..MAX_SIZE.
+     */
+    public static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds the page from rows fetched with limit + 1; next is null on the last page.
+     */
+    public static <T, P> P of(List<T> fetched, int limit, Function<T, String> key, BiFunction<List<T>, String, P> page) {
+        if (fetched.size() <= limit) {
+            return page.apply(fetched, null);
+        }
+        List<T> rows = fetched.subList(0, limit);
+        return page.apply(rows, key.apply(rows.get(limit - 1)));
+    }
+}
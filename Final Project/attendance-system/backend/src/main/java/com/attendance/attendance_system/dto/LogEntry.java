@@ -0,0 +1,25 @@
+package com.attendance.attendance_system.dto;
+
+import com.attendance.attendance_system.model.AttendanceEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * An activity log entry as the logs tab shows it: who (user), where (session name) and when.
+ */
+public record LogEntry(
+        String id,
+        AttendanceEvent.Type type,
+        String user,
+        String session,
+        String sessionId,
+        String section,
+        String previousSection,
+        LocalDateTime time
+) {
+
+    public static LogEntry of(AttendanceEvent event) {
+        return new LogEntry(event.getId(), event.getType(), event.getUserId(), event.getSessionName(),
+                event.getSessionId(), event.getSection(), event.getPreviousSection(), event.getTime());
+    }
+}
@@ -0,0 +1,13 @@
+package com.attendance.attendance_system.dto;
+
+import java.util.List;
+
+/**
+ * One page of the activity log, newest first. Pass next back as before for the following
+ * page; null on the last one.
+ */
+public record LogPage(
+        List<LogEntry> entries,
+        String next
+) {
+}
@@ -0,0 +1,4 @@
+package com.attendance.attendance_system.dto;
+
+public record MigrationReport(long usersMigrated, long recordsCopied) {
+}
@@ -0,0 +1,4 @@
+package com.attendance.attendance_system.dto;
+
+public record QrTokenResponse(String qrToken, long refreshInSeconds) {
+}
@@ -0,0 +1,12 @@
+package com.attendance.attendance_system.dto;
+
+import java.time.LocalDateTime;
+
+public record RosterEntry(
+        String userId,
+        String name,
+        String email,
+        boolean present,
+        LocalDateTime checkInTime
+) {
+}
@@ -1,6 +1,5 @@
 package com.attendance.attendance_system.dto;
 
-import com.attendance.attendance_system.model.User;
 import lombok.Data;
 
 import java.util.List;
@@ -8,10 +7,10 @@ import java.util.List;
 @Data
 public class SectionData {
     private String section;
-    private List<User> students;
+    private List<StudentSummary> students;
 
     // Constructor
-    public SectionData(String section, List<User> students) {
+    public SectionData(String section, List<StudentSummary> students) {
         this.section = section;
         this.students = students;
     }
@@ -0,0 +1,7 @@
+package com.attendance.attendance_system.dto;
+
+public record SessionCounts(
+        int rosterSize,
+        int presentCount
+) {
+}
@@ -0,0 +1,12 @@
+package com.attendance.attendance_system.dto;
+
+import java.util.List;
+
+/**
+ * One page of a section. Pass next back as after for the following page; null on the last one.
+ */
+public record StudentPage(
+        List<StudentSummary> students,
+        String next
+) {
+}
@@ -0,0 +1,12 @@
+package com.attendance.attendance_system.dto;
+
+/**
+ * The fields of a User the admin screens show; never the password.
+ */
+public record StudentSummary(
+        String id,
+        String name,
+        String email,
+        String section
+) {
+}
@@ -1,5 +1,5 @@
 package com.attendance.attendance_system.dto;
 
-
-public record TokenResponse(String token, long expiresInMinutes) {
+// token identifies the session; qrToken is what the QR code shows and changes every qrRotateSeconds.
+public record TokenResponse(String token, long expiresInMinutes, String qrToken, long qrRotateSeconds) {
 }
@@ -0,0 +1,48 @@
+package com.attendance.attendance_system.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only activity log behind /api/logs. Entries are never updated.
+ * The id is assigned when the event happens, so _id order is event order and doubles as the
+ * time index; each filter has an index ending in _id for newest-first keyset reads.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "attendance_events")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_id", def = "{'userId': 1, '_id': -1}"),
+        @CompoundIndex(name = "session_id", def = "{'sessionId': 1, '_id': -1}"),
+        @CompoundIndex(name = "section_id", def = "{'section': 1, '_id': -1}")
+})
+public class AttendanceEvent {
+
+    public enum Type {
+        CHECK_IN,
+        SESSION_CREATED,
+        SECTION_ASSIGNED
+    }
+
+    @Id
+    private String id;
+    private Type type;
+    private LocalDateTime time;
+    private String userId;
+    private String sessionId;
+    private String sessionName;
+    private String section;
+    // SECTION_ASSIGNED only; null for a new student.
+    private String previousSection;
+    // Only set when attendance.events.retention-days > 0; the TTL index then deletes the entry.
+    @Indexed(expireAfter = "0s")
+    private LocalDateTime expireAt;
+}
@@ -0,0 +1,35 @@
+package com.attendance.attendance_system.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One student's attendance for one session. sessionId holds the session token,
+ * as the embedded records on User used to.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "attendance")
+@CompoundIndexes({
+        @CompoundIndex(name = "session_user", def = "{'sessionId': 1, 'userId': 1}", unique = true),
+        @CompoundIndex(name = "session_present_joinTime", def = "{'sessionId': 1, 'present': 1, 'joinTime': 1}"),
+        @CompoundIndex(name = "user_joinTime", def = "{'userId': 1, 'joinTime': -1}"),
+        @CompoundIndex(name = "section_session", def = "{'section': 1, 'sessionId': 1}")
+})
+public class AttendanceRecord {
+    @Id
+    private String id;
+    private String sessionId;
+    private String userId;
+    private String sessionName;
+    private String section;
+    private boolean present;
+    private LocalDateTime joinTime;
+}
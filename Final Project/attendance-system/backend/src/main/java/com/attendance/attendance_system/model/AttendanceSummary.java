@@ -0,0 +1,31 @@
+package com.attendance.attendance_system.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * How many sessions of a section one student attended. Kept up to date by AttendanceSummaries;
+ * the section's session total lives on SectionSummary.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "attendance_summaries")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_section", def = "{'userId': 1, 'section': 1}", unique = true),
+        @CompoundIndex(name = "section_user", def = "{'section': 1, 'userId': 1}")
+})
+public class AttendanceSummary {
+    @Id
+    private String id;
+    private String userId;
+    private String section;
+    private int attended;
+    private LocalDateTime updatedAt;
+}
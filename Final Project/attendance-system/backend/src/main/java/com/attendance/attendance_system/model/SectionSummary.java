@@ -0,0 +1,20 @@
+package com.attendance.attendance_system.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * How many sessions have been held for a section; the denominator of every student's
+ * attendance percentage in it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "section_summaries")
+public class SectionSummary {
+    @Id
+    private String section;
+    private int sessionsHeld;
+}
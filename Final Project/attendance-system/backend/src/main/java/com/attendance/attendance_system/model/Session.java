@@ -2,6 +2,8 @@ package com.attendance.attendance_system.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -10,14 +12,28 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Document(collection = "sessions")
+@CompoundIndex(name = "active_expiresAt", def = "{'active': 1, 'expiresAt': 1}")
 public class Session {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String sessionToken;
     private String sessionName;
+    @Indexed
     private String section;
+    @Indexed
     private String createdBy;
     private LocalDateTime createdAt;
+    @Indexed
     private LocalDateTime expiresAt;
     private boolean active;
+    // attendance.roster.lazy when the session was created, so changing the setting leaves open
+    // sessions on the write strategy their roster was built for. Null on older sessions.
+    private Boolean lazyRoster;
+    // Live tallies, see SessionCounters.
+    private int rosterSize;
+    private int presentCount;
+    // Only set when attendance.sessions.purge-after-days > 0; the TTL index then deletes the session.
+    @Indexed(expireAfter = "0s")
+    private LocalDateTime purgeAt;
 }
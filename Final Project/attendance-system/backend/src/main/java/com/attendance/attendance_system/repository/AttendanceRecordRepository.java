@@ -0,0 +1,17 @@
+package com.attendance.attendance_system.repository;
+
+import com.attendance.attendance_system.model.AttendanceRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceRecordRepository extends MongoRepository<AttendanceRecord, String> {
+    Optional<AttendanceRecord> findBySessionIdAndUserId(String sessionId, String userId);
+
+    List<AttendanceRecord> findBySessionIdAndPresentTrue(String sessionId);
+
+    List<AttendanceRecord> findByUserIdOrderByJoinTimeDesc(String userId);
+}
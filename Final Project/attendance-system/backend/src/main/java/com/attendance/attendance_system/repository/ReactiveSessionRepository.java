@@ -0,0 +1,11 @@
+package com.attendance.attendance_system.repository;
+
+import com.attendance.attendance_system.model.Session;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveSessionRepository extends ReactiveMongoRepository<Session, String> {
+    Mono<Session> findBySessionToken(String sessionToken);
+}
@@ -0,0 +1,11 @@
+package com.attendance.attendance_system.repository;
+
+import com.attendance.attendance_system.model.User;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    Mono<Boolean> existsByIdAndSection(String id, String section);
+}
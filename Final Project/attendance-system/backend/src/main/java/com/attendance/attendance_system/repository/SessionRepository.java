@@ -1,8 +1,11 @@
 package com.attendance.attendance_system.repository;
 
 import com.attendance.attendance_system.model.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +14,8 @@ public interface SessionRepository extends MongoRepository<Session, String> {
     Optional<Session> findBySessionToken(String sessionToken);
     List<Session> findBySection(String section);
     List<Session> findByCreatedBy(String createdBy);
+
+    List<Session> findByActiveTrue();
+
+    Slice<Session> findByExpiresAtBeforeOrderByExpiresAtDesc(LocalDateTime now, Pageable pageable);
 }
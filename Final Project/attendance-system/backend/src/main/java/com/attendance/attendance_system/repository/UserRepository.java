@@ -1,6 +1,9 @@
 package com.attendance.attendance_system.repository;
 
+import com.attendance.attendance_system.dto.SectionData;
 import com.attendance.attendance_system.model.User;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.Update;
@@ -9,14 +12,23 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     List<User> findBySection(String section);
 
-    List<User> findByAttendanceRecordsSessionId(String sessionId);
-
-    Optional<User> findByIdAndAttendanceRecordsSessionId(String userId, String sessionId);
+    // Students grouped by section, reading only the fields StudentSummary needs.
+    String PROJECT_SUMMARY = "{ $project: { name: 1, email: 1, section: 1 } }";
+    String GROUP_BY_SECTION = "{ $group: { _id: '$section', students: { $push: { _id: '$_id', name: '$name', email: '$email', section: '$section' } } } }";
+    String NAME_SECTION = "{ $project: { _id: 0, section: '$_id', students: 1 } }";
+    String SORT_BY_SECTION = "{ $sort: { section: 1 } }";
 
+    /**
+     * One SectionData per section, streamed from the cursor; close the stream when done.
+     */
+    @Meta(allowDiskUse = true)
+    @Aggregation(pipeline = {PROJECT_SUMMARY, GROUP_BY_SECTION, NAME_SECTION, SORT_BY_SECTION})
+    Stream<SectionData> streamStudentsGroupedBySection();
 }
@@ -0,0 +1,50 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of sessions that are still open for check-in, so listing them never
+ * touches the sessions collection. Filled by generateToken and, at startup, by
+ * SessionExpiryScheduler, which also removes each session when it expires.
+ */
+@Component
+public class ActiveSessionRegistry {
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public ActiveSessionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("attendance.sessions.active", sessions, Map::size)
+                .description("Sessions currently open for check-in")
+                .register(meterRegistry);
+    }
+
+    public void register(Session session) {
+        if (session.isActive() && LocalDateTime.now().isBefore(session.getExpiresAt())) {
+            sessions.put(session.getSessionToken(), session);
+        }
+    }
+
+    public void remove(String token) {
+        sessions.remove(token);
+    }
+
+    /**
+     * Open sessions, newest first.
+     */
+    public List<Session> list() {
+        LocalDateTime now = LocalDateTime.now();
+        return sessions.values().stream()
+                .filter(session -> now.isBefore(session.getExpiresAt()))
+                .sorted(Comparator.comparing(Session::getCreatedAt).reversed())
+                .toList();
+    }
+}
@@ -0,0 +1,193 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.KeysetPage;
+import com.attendance.attendance_system.dto.LogEntry;
+import com.attendance.attendance_system.dto.LogPage;
+import com.attendance.attendance_system.model.AttendanceEvent;
+import com.attendance.attendance_system.model.Session;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The activity log behind /api/logs: check-ins, session creations and section assignments.
+ *
+ * Recording an event only offers it to a bounded queue; a background writer inserts the queue
+ * in unordered bulk batches of up to batch-size every max-delay-ms. When the queue is full (Mongo
+ * down or far behind) new events are dropped and counted rather than slowing the request down.
+ */
+@Slf4j
+@Component
+public class AttendanceEventLog {
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final int retentionDays;
+    private final BlockingQueue<AttendanceEvent> queue;
+    private final Counter dropped;
+
+    private BatchWorker<AttendanceEvent> writer;
+
+    public AttendanceEventLog(MongoTemplate mongoTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${attendance.events.batch-size:500}") int batchSize,
+                              @Value("${attendance.events.max-delay-ms:200}") long maxDelayMillis,
+                              @Value("${attendance.events.queue-capacity:10000}") int queueCapacity,
+                              @Value("${attendance.events.retention-days:180}") int retentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.retentionDays = retentionDays;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("attendance.events.dropped")
+                .description("Activity log events dropped because the write queue was full")
+                .register(meterRegistry);
+        Gauge.builder("attendance.events.queue", queue, BlockingQueue::size)
+                .description("Activity log events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public void checkIn(Session session, String userId, LocalDateTime time) {
+        append(checkInId(session.getSessionToken(), userId, time), AttendanceEvent.builder()
+                .type(AttendanceEvent.Type.CHECK_IN)
+                .time(time)
+                .userId(userId)
+                .sessionId(session.getSessionToken())
+                .sessionName(session.getSessionName())
+                .section(session.getSection()));
+    }
+
+    public void sessionCreated(Session session) {
+        append(AttendanceEvent.builder()
+                .type(AttendanceEvent.Type.SESSION_CREATED)
+                .time(session.getCreatedAt())
+                .userId(session.getCreatedBy())
+                .sessionId(session.getSessionToken())
+                .sessionName(session.getSessionName())
+                .section(session.getSection()));
+    }
+
+    public void sectionAssigned(String userId, String previousSection, String section) {
+        append(AttendanceEvent.builder()
+                .type(AttendanceEvent.Type.SECTION_ASSIGNED)
+                .time(LocalDateTime.now())
+                .userId(userId)
+                .section(section)
+                .previousSection(previousSection));
+    }
+
+    /**
+     * Newest first, starting before the given id (from the newest when it is null), optionally
+     * narrowed to one user, session and/or section. Keyset paging over the filter's index, so
+     * every page costs the same however deep it is. beforeId must be a valid ObjectId.
+     */
+    public LogPage page(String userId, String sessionId, String section, String beforeId, int size) {
+        int limit = KeysetPage.limit(size);
+        Criteria criteria = new Criteria();
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (sessionId != null) {
+            criteria = criteria.and("sessionId").is(sessionId);
+        }
+        if (section != null) {
+            criteria = criteria.and("section").is(section);
+        }
+        if (beforeId != null) {
+            criteria = criteria.and("_id").lt(new ObjectId(beforeId));
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "_id")).limit(limit + 1);
+        List<LogEntry> fetched = mongoTemplate.find(query, AttendanceEvent.class).stream()
+                .map(LogEntry::of)
+                .toList();
+        return KeysetPage.of(fetched, limit, LogEntry::id, LogPage::new);
+    }
+
+    /**
+     * A student checks in to a session at most once, so the id is derived from the pair (and the
+     * time, to keep the log in order): a check-in the journal replays after a restart is then a
+     * duplicate key rather than a second event.
+     */
+    static String checkInId(String token, String userId, LocalDateTime time) {
+        byte[] pair = (token + '\n' + userId).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer id = ByteBuffer.allocate(12)
+                .putInt((int) time.atZone(ZoneId.systemDefault()).toEpochSecond())
+                .putLong(UUID.nameUUIDFromBytes(pair).getLeastSignificantBits());
+        return new ObjectId(id.array()).toHexString();
+    }
+
+    private void append(AttendanceEvent.AttendanceEventBuilder event) {
+        append(new ObjectId().toHexString(), event);
+    }
+
+    private void append(String id, AttendanceEvent.AttendanceEventBuilder event) {
+        LocalDateTime now = LocalDateTime.now();
+        event.id(id)
+                .expireAt(retentionDays > 0 ? now.plusDays(retentionDays) : null);
+        if (!queue.offer(event.build())) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new BatchWorker<>("attendance-event-log", "activity log event(s)", 100,
+                () -> BatchWorker.poll(queue, batchSize, maxDelayNanos), this::insert);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        List<AttendanceEvent> remaining = new ArrayList<>(writer.stop());
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            try {
+                insert(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+            } catch (RuntimeException e) {
+                log.warn("Dropping {} activity log event(s) on shutdown", remaining.size() - from, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Unordered, so one bad document does not hold up the rest. Ids are assigned up front, so
+     * duplicate key errors on a retried batch are entries that made it in the first time.
+     */
+    private void insert(List<AttendanceEvent> batch) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceEvent.class)
+                    .insert(batch)
+                    .execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                return;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.MigrationReport;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.User;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the attendance records that used to be embedded in users.attendanceRecords into the
+ * attendance collection. Users are streamed in batches; each batch is upserted with
+ * $setOnInsert and then the embedded array is unset, so the job can be re-run safely.
+ *
+ * Runs on startup by default, retrying until Mongo lets it finish. Until then isComplete() is
+ * false and check-ins are refused, since a session created before the move has its roster only
+ * in the embedded arrays. With on-startup=false the operator runs it through the admin endpoint
+ * and check-ins are not held back.
+ */
+@Slf4j
+@Service
+public class AttendanceMigrationService {
+
+    private static final String EMBEDDED_FIELD = "attendanceRecords";
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final boolean runOnStartup;
+
+    private volatile boolean complete;
+
+    public AttendanceMigrationService(MongoTemplate mongoTemplate,
+                                      @Value("${attendance.migration.batch-size:500}") int batchSize,
+                                      @Value("${attendance.migration.on-startup:true}") boolean runOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.runOnStartup = runOnStartup;
+        this.complete = !runOnStartup;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (runOnStartup) {
+            Thread.ofPlatform().name("attendance-migration").daemon().start(this::migrateUntilComplete);
+        }
+    }
+
+    private void migrateUntilComplete() {
+        long backoff = 1000;
+        while (!complete) {
+            try {
+                MigrationReport report = migrateEmbeddedRecords();
+                log.info("Attendance migration finished: {}", report);
+            } catch (RuntimeException e) {
+                log.warn("Attendance migration failed, retrying in {} ms; check-ins are refused until it finishes",
+                        backoff, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, TimeUnit.SECONDS.toMillis(30));
+            }
+        }
+    }
+
+    public MigrationReport migrateEmbeddedRecords() {
+        MongoCollection<Document> users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        MongoCollection<Document> attendance =
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(AttendanceRecord.class));
+
+        long usersMigrated = 0;
+        long recordsCopied = 0;
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<Object> userIds = new ArrayList<>();
+
+        try (MongoCursor<Document> cursor = users.find(Filters.exists(EMBEDDED_FIELD))
+                .projection(Projections.include("section", EMBEDDED_FIELD))
+                .batchSize(batchSize)
+                .cursor()) {
+            while (cursor.hasNext()) {
+                Document user = cursor.next();
+                String userId = user.get("_id").toString();
+                for (Document record : user.getList(EMBEDDED_FIELD, Document.class, List.of())) {
+                    writes.add(new UpdateOneModel<>(
+                            Filters.and(Filters.eq("sessionId", record.getString("sessionId")),
+                                    Filters.eq("userId", userId)),
+                            Updates.combine(
+                                    Updates.setOnInsert("sessionName", record.getString("sessionName")),
+                                    Updates.setOnInsert("section", user.getString("section")),
+                                    Updates.setOnInsert("present", record.getBoolean("present", false)),
+                                    Updates.setOnInsert("joinTime", record.get("joinTime"))),
+                            new UpdateOptions().upsert(true)));
+                }
+                userIds.add(user.get("_id"));
+
+                if (userIds.size() >= batchSize) {
+                    recordsCopied += flush(users, attendance, writes, userIds);
+                    usersMigrated += userIds.size();
+                    writes.clear();
+                    userIds.clear();
+                }
+            }
+        }
+        if (!userIds.isEmpty()) {
+            recordsCopied += flush(users, attendance, writes, userIds);
+            usersMigrated += userIds.size();
+        }
+        complete = true;
+        return new MigrationReport(usersMigrated, recordsCopied);
+    }
+
+    private long flush(MongoCollection<Document> users, MongoCollection<Document> attendance,
+                       List<WriteModel<Document>> writes, List<Object> userIds) {
+        long copied = 0;
+        if (!writes.isEmpty()) {
+            copied = attendance.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getUpserts().size();
+        }
+        users.updateMany(Filters.in("_id", userIds), Updates.unset(EMBEDDED_FIELD));
+        return copied;
+    }
+}
@@ -0,0 +1,268 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.AttendanceSheetRow;
+import com.attendance.attendance_system.dto.StudentSummary;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Section attendance sheets: one row per current member of the section, one column per session
+ * held for it in a date range, written as CSV or gzip-compressed NDJSON while it is read.
+ *
+ * Only the session list is held in memory. The rows come from merging two cursors sorted by
+ * student id: the section's students (section_id index) and an aggregation of their present
+ * records grouped by student, so heap use does not depend on the size of the section.
+ */
+@Component
+@RequiredArgsConstructor
+public class AttendanceReports {
+
+    private static final DateTimeFormatter COLUMN_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String FORMULA_START = "=+-@\t\r";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", ".csv"),
+        NDJSON("application/gzip", ".ndjson.gz");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        /**
+         * The format named by a request parameter, or null if there is none by that name.
+         */
+        public static Format parse(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String fileName(String section) {
+            return "attendance-" + section.replaceAll("[^A-Za-z0-9_-]", "_") + extension;
+        }
+    }
+
+    public void export(String section, LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        List<Session> sessions = sessions(section, from, to);
+        try (Stream<AttendanceSheetRow> rows = rows(section, sessions)) {
+            if (format == Format.CSV) {
+                writeCsv(sessions, rows, out);
+            } else {
+                writeNdjson(rows, out);
+            }
+        }
+    }
+
+    /**
+     * The section's sessions created between from and to (inclusive, either may be null),
+     * oldest first.
+     */
+    public List<Session> sessions(String section, LocalDate from, LocalDate to) {
+        Criteria criteria = Criteria.where("section").is(section);
+        if (from != null || to != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (from != null) {
+                createdAt = createdAt.gte(from.atStartOfDay());
+            }
+            if (to != null) {
+                createdAt = createdAt.lt(to.plusDays(1).atStartOfDay());
+            }
+            criteria = new Criteria().andOperator(criteria, createdAt);
+        }
+        Query query = new Query(criteria).with(Sort.by("createdAt", "_id"));
+        query.fields().include("sessionToken", "sessionName", "createdAt");
+        return mongoTemplate.find(query, Session.class);
+    }
+
+    /**
+     * One row per student of the section, in _id order. Close the stream to release both cursors.
+     */
+    public Stream<AttendanceSheetRow> rows(String section, List<Session> sessions) {
+        List<String> tokens = sessions.stream().map(Session::getSessionToken).toList();
+        Aggregation presentByStudent = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("sessionId").in(tokens).and("present").is(true)),
+                Aggregation.group("userId").addToSet("sessionId").as("sessions"),
+                Aggregation.sort(Sort.by("_id")))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Stream<StudentSummary> students = mongoTemplate.stream(UserService.studentsQuery(section, null),
+                StudentSummary.class, mongoTemplate.getCollectionName(User.class));
+        Stream<Document> attendance;
+        try {
+            attendance = tokens.isEmpty()
+                    ? Stream.empty()
+                    : mongoTemplate.aggregateStream(presentByStudent, mongoTemplate.getCollectionName(AttendanceRecord.class),
+                            Document.class);
+        } catch (RuntimeException e) {
+            students.close();
+            throw e;
+        }
+
+        Function<String, Set<String>> lookup = userId -> tokens.isEmpty() ? Set.of() : sessionsAttended(userId, tokens);
+        Stream<AttendanceSheetRow> rows = students.map(new MergeByStudent(tokens, attendance.iterator(), lookup));
+        return rows.onClose(attendance::close);
+    }
+
+    /**
+     * The sessions among tokens the student was present at, through the session_user index.
+     */
+    private Set<String> sessionsAttended(String userId, List<String> tokens) {
+        Query query = new Query(Criteria.where("sessionId").in(tokens).and("userId").is(userId).and("present").is(true));
+        query.fields().include("sessionId");
+        return mongoTemplate.find(query, AttendanceRecord.class).stream()
+                .map(AttendanceRecord::getSessionId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Joins each student to their aggregated attendance. Ids created by the app are ObjectIds,
+     * which the users cursor returns in ObjectId order and the aggregation, grouping userId
+     * strings, in the same order, since their hex form is fixed-length lowercase. A student whose
+     * _id is a plain string (inserted outside the app) sorts ahead of every ObjectId in the users
+     * cursor but anywhere in the aggregation, so those few are looked up one by one instead and
+     * their aggregated entries are skipped.
+     */
+    private static final class MergeByStudent implements Function<StudentSummary, AttendanceSheetRow> {
+        private final List<String> tokens;
+        private final Iterator<Document> attended;
+        private final Function<String, Set<String>> lookup;
+        private Document next;
+
+        MergeByStudent(List<String> tokens, Iterator<Document> attended, Function<String, Set<String>> lookup) {
+            this.tokens = tokens;
+            this.attended = attended;
+            this.lookup = lookup;
+            advance();
+        }
+
+        @Override
+        public AttendanceSheetRow apply(StudentSummary student) {
+            if (!ObjectId.isValid(student.id())) {
+                return row(student, lookup.apply(student.id()));
+            }
+            while (next != null && next.getString("_id").compareTo(student.id()) < 0) {
+                // Attended while in the section but has since moved out of it.
+                advance();
+            }
+            Set<String> sessionsAttended = Set.of();
+            if (next != null && next.getString("_id").equals(student.id())) {
+                sessionsAttended = Set.copyOf(next.getList("sessions", String.class));
+                advance();
+            }
+            return row(student, sessionsAttended);
+        }
+
+        private AttendanceSheetRow row(StudentSummary student, Set<String> sessionsAttended) {
+            List<String> present = tokens.stream().filter(sessionsAttended::contains).toList();
+            return AttendanceSheetRow.of(student, tokens.size(), present);
+        }
+
+        private void advance() {
+            do {
+                next = attended.hasNext() ? attended.next() : null;
+            } while (next != null && !ObjectId.isValid(next.getString("_id")));
+        }
+    }
+
+    private void writeCsv(List<Session> sessions, Stream<AttendanceSheetRow> rows, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        List<String> header = new ArrayList<>(List.of("userId", "name", "email"));
+        sessions.forEach(session -> header.add(columnName(session)));
+        header.addAll(List.of("attended", "totalSessions", "percentage"));
+        writeCsvLine(csv, header);
+
+        List<String> line = new ArrayList<>(header.size());
+        for (Iterator<AttendanceSheetRow> it = rows.iterator(); it.hasNext(); ) {
+            AttendanceSheetRow row = it.next();
+            Set<String> present = Set.copyOf(row.present());
+            line.clear();
+            line.addAll(List.of(row.userId(), nullToEmpty(row.name()), nullToEmpty(row.email())));
+            sessions.forEach(session -> line.add(present.contains(session.getSessionToken()) ? "P" : "A"));
+            line.addAll(List.of(Integer.toString(row.attended()), Integer.toString(row.totalSessions()),
+                    Double.toString(row.percentage())));
+            writeCsvLine(csv, line);
+        }
+        csv.flush();
+    }
+
+    private void writeNdjson(Stream<AttendanceSheetRow> rows, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+        for (Iterator<AttendanceSheetRow> it = rows.iterator(); it.hasNext(); ) {
+            gzip.write(objectMapper.writeValueAsBytes(it.next()));
+            gzip.write('\n');
+        }
+        gzip.finish();
+        gzip.flush();
+    }
+
+    private static String columnName(Session session) {
+        String name = nullToEmpty(session.getSessionName());
+        return session.getCreatedAt() == null ? name : name + " " + session.getCreatedAt().format(COLUMN_DATE);
+    }
+
+    private static void writeCsvLine(Writer csv, List<String> cells) throws IOException {
+        csv.write(cells.stream().map(AttendanceReports::csvCell).collect(Collectors.joining(",")));
+        csv.write("\r\n");
+    }
+
+    /**
+     * Quotes the cell when needed, and defuses one that a spreadsheet would read as a formula
+     * (names and session titles are user input) by prefixing an apostrophe.
+     */
+    static String csvCell(String value) {
+        if (!value.isEmpty() && FORMULA_START.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
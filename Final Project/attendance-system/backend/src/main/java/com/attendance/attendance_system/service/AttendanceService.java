@@ -1,23 +1,39 @@
 package com.attendance.attendance_system.service;
 
+import com.attendance.attendance_system.config.MongoPoolConfig;
 import com.attendance.attendance_system.dto.AttendanceResponse;
+import com.attendance.attendance_system.dto.CheckInDelta;
 import com.attendance.attendance_system.dto.CheckInRecord;
+import com.attendance.attendance_system.dto.RosterEntry;
+import com.attendance.attendance_system.dto.QrTokenResponse;
 import com.attendance.attendance_system.dto.TokenResponse;
+import com.attendance.attendance_system.model.AttendanceRecord;
 import com.attendance.attendance_system.model.Session;
 import com.attendance.attendance_system.model.User;
+import com.attendance.attendance_system.repository.AttendanceRecordRepository;
 import com.attendance.attendance_system.repository.SessionRepository;
 import com.attendance.attendance_system.repository.UserRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.mongodb.core.query.Update;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +42,30 @@ public class AttendanceService {
 
     private final UserRepository userRepository;
     private final SessionRepository sessionRepository;
+    private final AttendanceRecordRepository attendanceRecordRepository;
     private final MongoTemplate mongoTemplate;
+    private final SessionTokenCache sessionTokenCache;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final SessionExpiryScheduler sessionExpiryScheduler;
+    private final CheckInWriter checkInWriter;
+    private final CheckInBatcher checkInBatcher;
+    private final CheckInJournal checkInJournal;
+    private final CheckInLedger checkInLedger;
+    private final QrTokenService qrTokenService;
+    private final CheckInRejections checkInRejections;
+    private final CheckInFeed checkInFeed;
+    private final AttendanceSummaries attendanceSummaries;
+    private final AttendanceEventLog attendanceEventLog;
+    private final AttendanceMigrationService attendanceMigrationService;
+
+    @Value("${attendance.sessions.purge-after-days:0}")
+    private int purgeAfterDays;
+
+    @Value("${attendance.check-in.batch.result-timeout-ms:2000}")
+    private long batchResultTimeoutMillis;
+
+    @Value("${attendance.records.cursor-settle-ms:5000}")
+    private long cursorSettleMillis;
 
     // --- ADMIN METHODS ---
     public TokenResponse generateToken(String adminId, String section, String sessionName) {
@@ -34,6 +73,23 @@ public class AttendanceService {
         String token = UUID.randomUUID().toString();
         LocalDateTime now = LocalDateTime.now();
 
+        Query sectionQuery = new Query(Criteria.where("section").is(section));
+        sectionQuery.fields().include("_id");
+        boolean lazyRoster = checkInWriter.isLazyRoster();
+        // No placeholders in lazy-roster mode: a missing record means absent and checkIn inserts it.
+        List<AttendanceRecord> placeholders = lazyRoster
+                ? List.of()
+                : mongoTemplate.find(sectionQuery, User.class).stream()
+                        .map(user -> AttendanceRecord.builder()
+                                .sessionId(token)
+                                .userId(user.getId())
+                                .sessionName(sessionName)
+                                .section(section)
+                                .present(false)
+                                .build())
+                        .toList();
+        long rosterSize = lazyRoster ? mongoTemplate.count(sectionQuery, User.class) : placeholders.size();
+
         Session session = Session.builder()
                 .sessionToken(token)
                 .sessionName(sessionName)
@@ -42,99 +98,311 @@ public class AttendanceService {
                 .createdAt(now)
                 .expiresAt(now.plusMinutes(durationMinutes))
                 .active(true)
+                .lazyRoster(lazyRoster)
+                .rosterSize((int) rosterSize)
+                .purgeAt(purgeAfterDays > 0 ? now.plusDays(purgeAfterDays) : null)
                 .build();
 
-        sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        sessionTokenCache.put(saved);
+        activeSessionRegistry.register(saved);
+        sessionExpiryScheduler.schedule(saved);
+        checkInLedger.open(token, lazyRoster ? null : placeholders.stream().map(AttendanceRecord::getUserId).toList());
+        attendanceSummaries.sessionOpened(section);
+        attendanceEventLog.sessionCreated(saved);
 
+        if (!placeholders.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRecord.class)
+                    .insert(placeholders)
+                    .execute();
+        }
 
-        Query conditionalPushQuery = new Query(
-                Criteria.where("section").is(section)
-                        .and("attendanceRecords.sessionId").ne(token)
-        );
-        Update pushUpdate = new Update().push("attendanceRecords",
-                new User.AttendanceRecord(token, sessionName, false, null));
+        return tokenResponse(saved, durationMinutes);
+    }
+
+    private TokenResponse tokenResponse(Session session, int durationMinutes) {
+        return new TokenResponse(session.getSessionToken(), durationMinutes,
+                qrTokenService.issue(session).qrToken(), qrTokenService.getRotateSeconds());
+    }
 
-        mongoTemplate.updateMulti(conditionalPushQuery, pushUpdate, User.class);
+    /**
+     * The QR value to show right now for an open session; empty once it has closed.
+     */
+    public Optional<QrTokenResponse> currentQrToken(String sessionToken) {
+        return findOpenSession(sessionToken).map(qrTokenService::issue);
+    }
 
-        return new TokenResponse(token, durationMinutes);
+    public Optional<Session> findOpenSession(String sessionToken) {
+        return sessionTokenCache.get(sessionToken)
+                .filter(session -> session.isActive() && LocalDateTime.now().isBefore(session.getExpiresAt()));
     }
 
 
     // --- USER METHODS ---
     public List<Map<String, Object>> getActiveSessions() {
-        return sessionRepository.findAll().stream()
-                .map(session -> {
-                    Map<String, Object> sessionMap = new HashMap<>();
-                    sessionMap.put("sessionId", session.getId());
-                    sessionMap.put("sessionName", session.getSessionName());
-                    sessionMap.put("section", session.getSection());
-                    sessionMap.put("createdBy", session.getCreatedBy());
-                    sessionMap.put("createdAt", session.getCreatedAt());
-                    sessionMap.put("expiresAt", session.getExpiresAt());
-                    sessionMap.put("active", session.isActive());
-                    return sessionMap;
-                })
+        return activeSessionRegistry.list().stream()
+                .map(this::toSessionMap)
+                .toList();
+    }
+
+    public List<Map<String, Object>> getSessionHistory(int page, int size) {
+        return sessionRepository.findByExpiresAtBeforeOrderByExpiresAtDesc(LocalDateTime.now(), PageRequest.of(page, size))
+                .stream()
+                .map(this::toSessionMap)
                 .toList();
     }
 
+    private Map<String, Object> toSessionMap(Session session) {
+        Map<String, Object> sessionMap = new HashMap<>();
+        sessionMap.put("sessionId", session.getId());
+        sessionMap.put("sessionToken", session.getSessionToken());
+        sessionMap.put("sessionName", session.getSessionName());
+        sessionMap.put("section", session.getSection());
+        sessionMap.put("createdBy", session.getCreatedBy());
+        sessionMap.put("createdAt", session.getCreatedAt());
+        sessionMap.put("expiresAt", session.getExpiresAt());
+        sessionMap.put("active", session.isActive());
+        return sessionMap;
+    }
+
     public AttendanceResponse checkIn(String token, String userId) {
-        Optional<Session> sessionOpt = sessionRepository.findBySessionToken(token);
+        try {
+            return tryCheckIn(token, userId);
+        } catch (DataAccessResourceFailureException e) {
+            if (!MongoPoolConfig.isPoolWaitTimeout(e)) {
+                throw e;
+            }
+            // No pooled Mongo connection within attendance.mongo.pool.max-wait-ms.
+            return new AttendanceResponse("Too many check-ins in progress. Try again.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private AttendanceResponse tryCheckIn(String scanned, String userId) {
+        if (!attendanceMigrationService.isComplete()) {
+            return new AttendanceResponse("Attendance records are still being migrated. Try again shortly.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        QrTokenService.Scan scan = qrTokenService.resolve(scanned);
+        if (scan.isRejected()) {
+            return scan.rejection();
+        }
+
+        String token = scan.sessionToken();
+        Optional<Session> sessionOpt = sessionTokenCache.get(token);
         if (sessionOpt.isEmpty()) {
+            checkInRejections.count(CheckInRejections.Reason.UNKNOWN_SESSION);
             return new AttendanceResponse("Invalid or unknown session token.", HttpStatus.NOT_FOUND);
         }
 
         Session session = sessionOpt.get();
 
+        if (!scan.matches(session)) {
+            checkInRejections.count(CheckInRejections.Reason.WRONG_SECTION);
+            return new AttendanceResponse("Invalid or unknown session token.", HttpStatus.NOT_FOUND);
+        }
+
         if (!session.isActive() || LocalDateTime.now().isAfter(session.getExpiresAt())) {
+            checkInRejections.count(CheckInRejections.Reason.SESSION_EXPIRED);
             return new AttendanceResponse("Session has expired.", HttpStatus.FORBIDDEN);
         }
 
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            return new AttendanceResponse("User not found.", HttpStatus.NOT_FOUND);
+        if (checkInLedger.isDuplicate(token, userId)) {
+            return new AttendanceResponse("You have already checked in.", HttpStatus.CONFLICT);
         }
-        User user = userOpt.get();
 
+        if (checkInWriter.isLazyRoster(session) && !checkInWriter.isOnRoster(session, userId)) {
+            return explainFailedCheckIn(token, userId);
+        }
 
-        Optional<User.AttendanceRecord> recordOpt = user.getAttendanceRecords().stream()
-                .filter(r -> r.getSessionId().equals(token))
-                .findFirst();
+        LocalDateTime joinTime = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (checkInJournal.isEnabled()) {
+            // Nothing checks the journaled entry against Mongo before the reply, so the roster
+            // is checked here; lazy-roster sessions were checked above.
+            if (!checkInWriter.isLazyRoster(session) && !isOnRoster(session, userId)) {
+                return explainFailedCheckIn(token, userId);
+            }
+            // Durable locally; CheckInJournalReplayer writes it to Mongo and then publishes it.
+            checkInJournal.append(userId, token, joinTime);
+            checkInLedger.record(token, userId);
+            return new AttendanceResponse("Attendance received for " + session.getSessionName(), HttpStatus.ACCEPTED);
+        }
 
-        if (recordOpt.isEmpty()) {
-            return new AttendanceResponse("No attendance record found for this session.", HttpStatus.NOT_FOUND);
+        boolean applied;
+        try {
+            applied = applyCheckIn(session, userId, joinTime);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            return new AttendanceResponse("Too many check-ins in progress. Try again.", HttpStatus.SERVICE_UNAVAILABLE);
         }
 
-        User.AttendanceRecord record = recordOpt.get();
+        if (applied) {
+            checkInLedger.record(token, userId);
+            checkInFeed.publish(session, userId, joinTime);
+            attendanceEventLog.checkIn(session, userId, joinTime);
+            return new AttendanceResponse("Attendance recorded successfully for " + session.getSessionName(), HttpStatus.OK);
+        }
+        return explainFailedCheckIn(token, userId);
+    }
 
-        if (record.isPresent()) {
-            return new AttendanceResponse("You have already checked in.", HttpStatus.CONFLICT);
+    /**
+     * Throws TimeoutException if the batcher has not written the check-in within
+     * batch.result-timeout-ms; it may still be written afterwards.
+     */
+    private boolean applyCheckIn(Session session, String userId, LocalDateTime joinTime) throws TimeoutException {
+        if (!checkInBatcher.isEnabled()) {
+            return checkInWriter.apply(session, userId, joinTime);
+        }
+        try {
+            return checkInBatcher.submit(session, userId, joinTime)
+                    .orTimeout(batchResultTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        LocalDateTime joinTime = LocalDateTime.now();
+    }
+
+    /**
+     * Whether the student has a placeholder record in the session, from the ledger's copy of the
+     * roster when it has one.
+     */
+    private boolean isOnRoster(Session session, String userId) {
+        String token = session.getSessionToken();
+        if (checkInLedger.tracksRoster(token)) {
+            return checkInLedger.isOnRoster(token, userId);
+        }
+        return mongoTemplate.exists(new Query(Criteria.where("sessionId").is(token).and("userId").is(userId)),
+                AttendanceRecord.class);
+    }
 
-        Query query = new Query(Criteria.where("_id").is(userId)
-                .and("attendanceRecords.sessionId").is(token));
+    /**
+     * Works out why the check-in write did nothing. Only runs on the failure path.
+     */
+    private AttendanceResponse explainFailedCheckIn(String token, String userId) {
+        Optional<AttendanceRecord> record = attendanceRecordRepository.findBySessionIdAndUserId(token, userId);
+        if (record.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
+                return new AttendanceResponse("User not found.", HttpStatus.NOT_FOUND);
+            }
+            return new AttendanceResponse("No attendance record found for this session.", HttpStatus.NOT_FOUND);
+        }
+        if (record.get().isPresent()) {
+            return new AttendanceResponse("You have already checked in.", HttpStatus.CONFLICT);
+        }
+        return new AttendanceResponse("Could not update attendance record. Try again.", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
 
-        Update update = new Update()
-                .set("attendanceRecords.$.present", true)
-                .set("attendanceRecords.$.joinTime", joinTime);
+    public enum MarkResult {
+        MARKED,
+        ALREADY_PRESENT,
+        NOT_ON_ROSTER,
+        UNKNOWN_SESSION
+    }
 
-        var result = mongoTemplate.updateFirst(query, update, User.class);
+    /**
+     * Marks a student of the session's section present on an admin's behalf, with the same
+     * conditional write as a check-in, so an earlier join time is never overwritten. Allowed
+     * after the session has closed, but only an open session's live feed hears about it.
+     */
+    public MarkResult markPresent(String token, String userId) {
+        Optional<Session> sessionOpt = sessionTokenCache.get(token);
+        if (sessionOpt.isEmpty()) {
+            return MarkResult.UNKNOWN_SESSION;
+        }
+        Session session = sessionOpt.get();
+        // A pre-written roster is enforced by the write itself, which only matches a placeholder.
+        if (checkInWriter.isLazyRoster(session) && !checkInWriter.isOnRoster(session, userId)) {
+            return MarkResult.NOT_ON_ROSTER;
+        }
 
-        if (result.getModifiedCount() > 0) {
-            return new AttendanceResponse("Attendance recorded successfully for " + session.getSessionName(), HttpStatus.OK);
-        } else {
-            return new AttendanceResponse("Could not update attendance record. Try again.", HttpStatus.INTERNAL_SERVER_ERROR);
+        LocalDateTime joinTime = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (!checkInWriter.apply(session, userId, joinTime)) {
+            return checkInWriter.isPresent(session, userId) ? MarkResult.ALREADY_PRESENT : MarkResult.NOT_ON_ROSTER;
+        }
+        attendanceEventLog.checkIn(session, userId, joinTime);
+        if (session.isActive() && LocalDateTime.now().isBefore(session.getExpiresAt())) {
+            checkInLedger.record(token, userId);
+            checkInFeed.publish(session, userId, joinTime);
         }
+        return MarkResult.MARKED;
     }
 
     // --- ADMIN HELPER METHOD ---
-    public List<CheckInRecord> getCheckInRecords(String sessionToken) {
-        List<User> students = userRepository.findByAttendanceRecordsSessionId(sessionToken);
+    /**
+     * Check-ins of a session after since (all of them when since is null), oldest first, reading
+     * only userId and joinTime through the session_present_joinTime index.
+     *
+     * joinTime is taken before the write lands, so a check-in can become visible with a time just
+     * behind one already returned. The cursor therefore never moves past now - cursor-settle-ms:
+     * newer rows are returned again on the next call (callers dedupe by userId) rather than
+     * skipped. With the journal enabled, set cursor-settle-ms above its replay lag.
+     */
+    public Optional<CheckInDelta> getCheckInRecords(String sessionToken, LocalDateTime since) {
+        if (sessionTokenCache.get(sessionToken).isEmpty()) {
+            return Optional.empty();
+        }
 
-        return students.stream()
-                .flatMap(user -> user.getAttendanceRecords().stream()
-                        .filter(r -> r.getSessionId().equals(sessionToken) && r.isPresent())
-                        .map(r -> new CheckInRecord(user.getId(), r.getJoinTime())))
+        List<CheckInRecord> records = mongoTemplate.find(checkInsQuery(sessionToken, since), AttendanceRecord.class).stream()
+                .map(r -> new CheckInRecord(r.getUserId(), r.getJoinTime()))
                 .collect(Collectors.toList());
+
+        LocalDateTime settled = LocalDateTime.now().minus(cursorSettleMillis, ChronoUnit.MILLIS);
+        LocalDateTime cursor = since;
+        for (CheckInRecord record : records) {
+            if (record.checkInTime() == null || record.checkInTime().isAfter(settled)) {
+                break;
+            }
+            cursor = record.checkInTime();
+        }
+        return Optional.of(new CheckInDelta(records, cursor));
+    }
+
+    /**
+     * The check-ins query of getCheckInRecords, served by the session_present_joinTime index.
+     */
+    public static Query checkInsQuery(String sessionToken, LocalDateTime since) {
+        Criteria criteria = Criteria.where("sessionId").is(sessionToken).and("present").is(true);
+        if (since != null) {
+            criteria = criteria.and("joinTime").gt(since);
+        }
+        Query query = new Query(criteria).with(Sort.by("joinTime"));
+        query.fields().include("userId", "joinTime").exclude("_id");
+        return query;
+    }
+
+    /**
+     * Every student of the session's section with their status for it. Built at query time,
+     * so it also covers sessions created in lazy-roster mode where absent students have no record.
+     */
+    public Optional<List<RosterEntry>> getRoster(String sessionToken) {
+        Optional<Session> sessionOpt = sessionTokenCache.get(sessionToken);
+        if (sessionOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Query studentsQuery = new Query(Criteria.where("section").is(sessionOpt.get().getSection()));
+        studentsQuery.fields().include("_id", "name", "email");
+
+        Map<String, AttendanceRecord> checkIns = attendanceRecordRepository.findBySessionIdAndPresentTrue(sessionToken)
+                .stream()
+                .collect(Collectors.toMap(AttendanceRecord::getUserId, Function.identity()));
+
+        return Optional.of(mongoTemplate.find(studentsQuery, User.class).stream()
+                .map(user -> {
+                    AttendanceRecord record = checkIns.get(user.getId());
+                    return new RosterEntry(user.getId(), user.getName(), user.getEmail(), record != null,
+                            record != null ? record.getJoinTime() : null);
+                })
+                .toList());
+    }
+
+    public Optional<List<RosterEntry>> getAbsentees(String sessionToken) {
+        return getRoster(sessionToken).map(roster -> roster.stream()
+                .filter(entry -> !entry.present())
+                .toList());
     }
 }
@@ -0,0 +1,355 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.AttendanceStats;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.AttendanceSummary;
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.model.SectionSummary;
+import com.attendance.attendance_system.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Materialized attendance percentages: per section, how many sessions were held
+ * (SectionSummary), and per student and section, how many they attended (AttendanceSummary).
+ * generateToken bumps the first and every successful check-in the second, so a profile or a
+ * section report reads a handful of small documents instead of walking attendance history.
+ *
+ * Like SessionCounters these are extra writes after the record's, so they can fall behind;
+ * verify() recounts both from the sessions and attendance collections on a schedule and
+ * repairs whatever drifted. Its first run also builds the summaries for existing history.
+ */
+@Slf4j
+@Component
+public class AttendanceSummaries {
+
+    private static final Comparator<Pair<String, String>> KEY_ORDER =
+            Comparator.comparing((Pair<String, String> key) -> key.getFirst()).thenComparing(Pair::getSecond);
+
+    private final MongoTemplate mongoTemplate;
+    private final int repairBatchSize;
+    private final long settleMillis;
+    private final Counter repaired;
+
+    public AttendanceSummaries(MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${attendance.summaries.repair-batch-size:500}") int repairBatchSize,
+                               @Value("${attendance.summaries.verify-settle-ms:60000}") long settleMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.repairBatchSize = repairBatchSize;
+        this.settleMillis = settleMillis;
+        this.repaired = Counter.builder("attendance.summaries.repaired")
+                .description("Attendance summaries corrected by the drift verifier")
+                .register(meterRegistry);
+    }
+
+    public void sessionOpened(String section) {
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(section)), new Update().inc("sessionsHeld", 1),
+                    SectionSummary.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not count a session for section {}; the verifier will correct it", section, e);
+        }
+    }
+
+    /**
+     * Counts a batch of check-ins, as one bulk write.
+     */
+    public void countAttended(Collection<Pair<String, String>> userAndSection) {
+        if (userAndSection.isEmpty()) {
+            return;
+        }
+        Map<Pair<String, String>, Integer> counts = new HashMap<>();
+        userAndSection.forEach(key -> counts.merge(key, 1, Integer::sum));
+        try {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceSummary.class);
+            counts.forEach((key, count) -> bulkOps.upsert(summaryQuery(key.getFirst(), key.getSecond()), attendedIncrement(count)));
+            bulkOps.execute();
+        } catch (RuntimeException e) {
+            log.warn("Could not count {} check-in(s) in attendance summaries; the verifier will correct them", counts.size(), e);
+        }
+    }
+
+    /**
+     * The student's attendance in every section they have a summary for, and in their current
+     * section (which may be null) even if they never attended one of its sessions.
+     */
+    public List<AttendanceStats> forStudent(String userId, String currentSection) {
+        Map<String, Integer> attended = new HashMap<>();
+        if (currentSection != null) {
+            attended.put(currentSection, 0);
+        }
+        mongoTemplate.find(new Query(Criteria.where("userId").is(userId)), AttendanceSummary.class)
+                .forEach(summary -> attended.put(summary.getSection(), summary.getAttended()));
+        Map<String, Integer> held = sessionsHeld(List.copyOf(attended.keySet()));
+        return attended.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> AttendanceStats.of(userId, null, null, entry.getKey(),
+                        held.getOrDefault(entry.getKey(), 0), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Every current member of the section with their attendance in it, including those who
+     * never attended.
+     */
+    public List<AttendanceStats> forSection(String section) {
+        int held = sessionsHeld(List.of(section)).getOrDefault(section, 0);
+        Map<String, Integer> attended = mongoTemplate.find(new Query(Criteria.where("section").is(section)),
+                        AttendanceSummary.class).stream()
+                .collect(Collectors.toMap(AttendanceSummary::getUserId, AttendanceSummary::getAttended));
+
+        Query students = new Query(Criteria.where("section").is(section)).with(Sort.by("_id"));
+        students.fields().include("name", "email");
+        return mongoTemplate.find(students, User.class).stream()
+                .map(user -> AttendanceStats.of(user.getId(), user.getName(), user.getEmail(), section, held,
+                        attended.getOrDefault(user.getId(), 0)))
+                .toList();
+    }
+
+    /**
+     * Recounts both summaries from the source collections and repairs what differs. The
+     * attendance side is a merge of two cursors sorted by (userId, section), so memory use does
+     * not grow with history.
+     *
+     * Check-ins keep counting while this runs, so a repair only applies if the summary still
+     * holds the value that was read, and the attendance side leaves alone summaries updated
+     * within settle-ms of the run and check-ins that recent, whose increments may still be on
+     * their way. Anything skipped is looked at again on the next run.
+     */
+    @Scheduled(initialDelayString = "${attendance.summaries.verify-initial-delay-ms:60000}",
+            fixedDelayString = "${attendance.summaries.verify-interval-ms:3600000}")
+    public void verify() {
+        try {
+            int fixed = verifySections() + verifyStudents();
+            if (fixed > 0) {
+                repaired.increment(fixed);
+                log.info("Repaired {} attendance summar{}", fixed, fixed == 1 ? "y" : "ies");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not verify attendance summaries", e);
+        }
+    }
+
+    /**
+     * Sessions are purged by their TTL but attendance records are kept, so a section's count is
+     * taken over the sessions that still exist together with every session its records name.
+     * Otherwise the recount would drop purged sessions that students' attended counts still
+     * include. Both are counted in Mongo, so only one document per section comes back.
+     *
+     * The summaries are read before the recount, and a section with a session created within
+     * settle-ms is left alone: its session may be saved while its sessionOpened increment is
+     * still on its way.
+     */
+    private int verifySections() {
+        Map<String, Integer> actual = mongoTemplate.findAll(SectionSummary.class).stream()
+                .collect(Collectors.toMap(SectionSummary::getSection, SectionSummary::getSessionsHeld));
+        // Spring stores a LocalDateTime as a Date in the system zone.
+        Date cutoff = Date.from(LocalDateTime.now().minus(Duration.ofMillis(settleMillis))
+                .atZone(ZoneId.systemDefault()).toInstant());
+
+        Map<String, Integer> expected = new HashMap<>();
+        Set<String> unsettled = new HashSet<>();
+        Aggregation existing = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("section").ne(null)),
+                Aggregation.group("section").count().as("sessions").max("createdAt").as("lastCreatedAt"));
+        mongoTemplate.aggregate(existing, Session.class, Document.class).forEach(doc -> {
+            expected.merge(doc.getString("_id"), doc.getInteger("sessions"), Integer::sum);
+            Date lastCreatedAt = doc.getDate("lastCreatedAt");
+            if (lastCreatedAt != null && !lastCreatedAt.before(cutoff)) {
+                unsettled.add(doc.getString("_id"));
+            }
+        });
+
+        // Served by the section_session index; each distinct session is then looked up once.
+        Aggregation purged = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("section").ne(null)),
+                Aggregation.sort(Sort.by("section", "sessionId")),
+                Aggregation.group("section", "sessionId"),
+                Aggregation.lookup(mongoTemplate.getCollectionName(Session.class), "_id.sessionId", "sessionToken", "session"),
+                Aggregation.match(Criteria.where("session").size(0)),
+                Aggregation.group("section").count().as("sessions"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        mongoTemplate.aggregate(purged, AttendanceRecord.class, Document.class)
+                .forEach(doc -> expected.merge(doc.getString("_id"), doc.getInteger("sessions"), Integer::sum));
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SectionSummary.class);
+        int fixed = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            String section = entry.getKey();
+            if (unsettled.contains(section)) {
+                continue;
+            }
+            Integer current = actual.get(section);
+            if (current == null) {
+                // A concurrent sessionOpened may create it first; then this leaves it alone.
+                bulkOps.upsert(new Query(Criteria.where("_id").is(section)), new Update().setOnInsert("sessionsHeld", entry.getValue()));
+                fixed++;
+            } else if (current.intValue() != entry.getValue()) {
+                bulkOps.updateOne(new Query(Criteria.where("_id").is(section).and("sessionsHeld").is(current)),
+                        new Update().set("sessionsHeld", entry.getValue()));
+                fixed++;
+            }
+        }
+        for (Map.Entry<String, Integer> entry : actual.entrySet()) {
+            if (!expected.containsKey(entry.getKey()) && entry.getValue() != 0) {
+                bulkOps.updateOne(new Query(Criteria.where("_id").is(entry.getKey()).and("sessionsHeld").is(entry.getValue())),
+                        new Update().set("sessionsHeld", 0));
+                fixed++;
+            }
+        }
+        if (fixed > 0) {
+            bulkOps.execute();
+        }
+        return fixed;
+    }
+
+    private int verifyStudents() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(settleMillis));
+        Aggregation attended = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("present").is(true).and("section").ne(null)
+                        .and("joinTime").not().gte(cutoff)),
+                Aggregation.group("userId", "section").count().as("attended"),
+                Aggregation.sort(Sort.by("_id.userId", "_id.section")))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        Query summaries = new Query().with(Sort.by("userId", "section"));
+
+        Repairs repairs = new Repairs();
+        try (Stream<Document> expectedStream = mongoTemplate.aggregateStream(attended,
+                mongoTemplate.getCollectionName(AttendanceRecord.class), Document.class);
+             Stream<AttendanceSummary> actualStream = mongoTemplate.stream(summaries, AttendanceSummary.class)) {
+            Iterator<Document> expected = expectedStream.iterator();
+            Iterator<AttendanceSummary> actual = actualStream.iterator();
+            Document nextExpected = expected.hasNext() ? expected.next() : null;
+            AttendanceSummary nextActual = actual.hasNext() ? actual.next() : null;
+
+            while (nextExpected != null || nextActual != null) {
+                int order;
+                if (nextExpected == null) {
+                    order = 1;
+                } else if (nextActual == null) {
+                    order = -1;
+                } else {
+                    order = KEY_ORDER.compare(keyOf(nextExpected), Pair.of(nextActual.getUserId(), nextActual.getSection()));
+                }
+
+                if (order < 0) {
+                    // Attended, but no summary yet.
+                    Pair<String, String> key = keyOf(nextExpected);
+                    repairs.create(key.getFirst(), key.getSecond(), nextExpected.getInteger("attended"));
+                    nextExpected = expected.hasNext() ? expected.next() : null;
+                } else if (order > 0) {
+                    // A summary with no present records behind it.
+                    if (nextActual.getAttended() != 0 && isSettled(nextActual, cutoff)) {
+                        repairs.set(nextActual, 0);
+                    }
+                    nextActual = actual.hasNext() ? actual.next() : null;
+                } else {
+                    if (nextActual.getAttended() != nextExpected.getInteger("attended") && isSettled(nextActual, cutoff)) {
+                        repairs.set(nextActual, nextExpected.getInteger("attended"));
+                    }
+                    nextExpected = expected.hasNext() ? expected.next() : null;
+                    nextActual = actual.hasNext() ? actual.next() : null;
+                }
+            }
+        }
+        repairs.flush();
+        return repairs.total;
+    }
+
+    private static boolean isSettled(AttendanceSummary summary, LocalDateTime cutoff) {
+        return summary.getUpdatedAt() == null || summary.getUpdatedAt().isBefore(cutoff);
+    }
+
+    private Map<String, Integer> sessionsHeld(List<String> sections) {
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(sections)), SectionSummary.class).stream()
+                .collect(Collectors.toMap(SectionSummary::getSection, SectionSummary::getSessionsHeld));
+    }
+
+    private static Pair<String, String> keyOf(Document aggregated) {
+        Document id = aggregated.get("_id", Document.class);
+        return Pair.of(id.getString("userId"), id.getString("section"));
+    }
+
+    static Query summaryQuery(String userId, String section) {
+        return new Query(Criteria.where("userId").is(userId).and("section").is(section));
+    }
+
+    static Update attendedIncrement(int count) {
+        return new Update().inc("attended", count).set("updatedAt", LocalDateTime.now());
+    }
+
+    /**
+     * Corrections found by verifyStudents, written repair-batch-size at a time. Each one only
+     * applies if the summary is still as it was read.
+     */
+    private final class Repairs {
+        private BulkOperations bulkOps;
+        private int pending;
+        private int total;
+
+        /** A missing summary; one created by a check-in in the meantime is left alone. */
+        void create(String userId, String section, int attended) {
+            add(bulkOps -> bulkOps.upsert(summaryQuery(userId, section), new Update()
+                    .setOnInsert("attended", attended)
+                    .setOnInsert("updatedAt", LocalDateTime.now())));
+        }
+
+        void set(AttendanceSummary summary, int attended) {
+            Query unchanged = summaryQuery(summary.getUserId(), summary.getSection());
+            unchanged.addCriteria(Criteria.where("attended").is(summary.getAttended()));
+            add(bulkOps -> bulkOps.updateOne(unchanged,
+                    new Update().set("attended", attended).set("updatedAt", LocalDateTime.now())));
+        }
+
+        private void add(Consumer<BulkOperations> repair) {
+            if (bulkOps == null) {
+                bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceSummary.class);
+            }
+            repair.accept(bulkOps);
+            pending++;
+            total++;
+            if (pending >= repairBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending > 0) {
+                bulkOps.execute();
+            }
+            bulkOps = null;
+            pending = 0;
+        }
+    }
+}
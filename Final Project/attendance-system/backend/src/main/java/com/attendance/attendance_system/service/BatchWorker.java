@@ -0,0 +1,130 @@
+package com.attendance.attendance_system.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The background loop behind the write-behind stages (CheckInBatcher, CheckInJournalReplayer
+ * and AttendanceEventLog): takes a batch from its source, hands it to its writer and, while the
+ * writer throws, retries the same batch with exponential backoff. An IOException from either
+ * side stops the loop.
+ */
+@Slf4j
+final class BatchWorker<T> {
+
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    interface Source<T> {
+
+        /** The next batch, or an empty list if nothing arrived in time. */
+        List<T> next() throws IOException, InterruptedException;
+    }
+
+    interface Writer<T> {
+
+        void write(List<T> batch) throws IOException;
+    }
+
+    private final String name;
+    private final String what;
+    private final long minBackoffMillis;
+    private final Source<T> source;
+    private final Writer<T> writer;
+
+    private volatile boolean running;
+    private volatile List<T> unwritten = List.of();
+    private Thread thread;
+
+    /**
+     * name is the thread's; what names the batch entries in log messages.
+     */
+    BatchWorker(String name, String what, long minBackoffMillis, Source<T> source, Writer<T> writer) {
+        this.name = name;
+        this.what = what;
+        this.minBackoffMillis = Math.max(1, minBackoffMillis);
+        this.source = source;
+        this.writer = writer;
+    }
+
+    void start() {
+        running = true;
+        thread = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    /**
+     * Stops the loop, waiting up to five seconds for it, and returns the batch it had not
+     * written yet, if any.
+     */
+    List<T> stop() throws InterruptedException {
+        if (thread == null) {
+            return List.of();
+        }
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        return unwritten;
+    }
+
+    private void run() {
+        List<T> batch = List.of();
+        long backoff = minBackoffMillis;
+        try {
+            while (running) {
+                try {
+                    if (batch.isEmpty()) {
+                        batch = source.next();
+                        if (batch.isEmpty()) {
+                            continue;
+                        }
+                    }
+                    writer.write(batch);
+                    batch = List.of();
+                    backoff = minBackoffMillis;
+                } catch (RuntimeException e) {
+                    // Mongo is unavailable; keep the batch and retry it.
+                    log.warn("Writing {} {} failed, retrying in {} ms", batch.size(), what, backoff, e);
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("{} stopped", name, e);
+        }
+        unwritten = batch;
+    }
+
+    /**
+     * Up to max elements of the queue: waits up to 100 ms for the first, then until maxDelayNanos
+     * after it for the rest. If interrupted once it holds elements it returns them with the
+     * interrupt flag set, so none are lost.
+     */
+    static <T> List<T> poll(BlockingQueue<T> queue, int max, long maxDelayNanos) throws InterruptedException {
+        T first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<T> batch = new ArrayList<>(max);
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        try {
+            while (batch.size() < max) {
+                long remaining = deadline - System.nanoTime();
+                T next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return batch;
+    }
+}
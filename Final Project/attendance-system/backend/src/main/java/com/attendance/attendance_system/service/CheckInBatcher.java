@@ -0,0 +1,220 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind stage for check-ins. Validated check-ins are queued and flushed as one
+ * unordered bulkWrite every max-delay-ms or max-size entries, whichever comes first.
+ * Each caller gets a future that completes with the real outcome of its own update, or
+ * exceptionally if that could not be determined or the batcher stopped before writing it.
+ */
+@Slf4j
+@Component
+public class CheckInBatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final CheckInWriter checkInWriter;
+    private final SessionCounters sessionCounters;
+    private final AttendanceSummaries attendanceSummaries;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<PendingCheckIn> queue;
+
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+
+    private BatchWorker<PendingCheckIn> flusher;
+    private volatile boolean stopped;
+
+    public CheckInBatcher(MongoTemplate mongoTemplate,
+                          CheckInWriter checkInWriter,
+                          SessionCounters sessionCounters,
+                          AttendanceSummaries attendanceSummaries,
+                          MeterRegistry meterRegistry,
+                          @Value("${attendance.check-in.batch.enabled:false}") boolean enabled,
+                          @Value("${attendance.check-in.batch.max-size:256}") int maxBatchSize,
+                          @Value("${attendance.check-in.batch.max-delay-ms:5}") long maxDelayMillis,
+                          @Value("${attendance.check-in.batch.queue-capacity:4096}") int queueCapacity,
+                          @Value("${attendance.check-in.batch.offer-timeout-ms:200}") long offerTimeoutMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.checkInWriter = checkInWriter;
+        this.sessionCounters = sessionCounters;
+        this.attendanceSummaries = attendanceSummaries;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchSize = DistributionSummary.builder("attendance.checkin.batch.size")
+                .description("Check-ins written per bulkWrite")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("attendance.checkin.batch.flush")
+                .description("Time spent writing one batch to Mongo")
+                .register(meterRegistry);
+        Gauge.builder("attendance.checkin.batch.queue", queue, BlockingQueue::size)
+                .description("Check-ins waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a check-in. Blocks for up to offer-timeout-ms when the queue is full and
+     * throws RejectedExecutionException if there is still no room or the batcher has stopped.
+     * The future fails with RejectedExecutionException if the batcher stops before writing it.
+     */
+    public CompletableFuture<Boolean> submit(Session session, String userId, LocalDateTime joinTime) {
+        if (stopped) {
+            throw new RejectedExecutionException("Check-in batcher has stopped");
+        }
+        PendingCheckIn pending = new PendingCheckIn(session, userId, joinTime, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Check-in queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing check-in", e);
+        }
+        // Queued after stop() took the last drain: nothing would ever write it.
+        if (stopped && queue.remove(pending)) {
+            throw new RejectedExecutionException("Check-in batcher has stopped");
+        }
+        return pending.result();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // flush resolves failures itself, so the worker never has a batch to retry.
+        flusher = new BatchWorker<>("check-in-batcher", "check-in(s)", 100,
+                () -> BatchWorker.poll(queue, maxBatchSize, maxDelayNanos), this::flush);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        List<PendingCheckIn> remaining = new ArrayList<>(flusher.stop());
+        stopped = true;
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Completes every future of the batch: with the outcome of its write, or exceptionally if
+     * the flush itself failed. Never throws, so the worker has nothing to retry.
+     */
+    private void flush(List<PendingCheckIn> batch) {
+        try {
+            write(batch);
+        } catch (RuntimeException | Error e) {
+            log.error("Check-in batch of {} could not be resolved", batch.size(), e);
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        }
+    }
+
+    private void write(List<PendingCheckIn> batch) {
+        // A repeated scan in the same batch can never win, so only the first one is written.
+        Map<String, PendingCheckIn> writes = new LinkedHashMap<>();
+        List<PendingCheckIn> repeats = new ArrayList<>();
+        for (PendingCheckIn pending : batch) {
+            if (writes.putIfAbsent(pending.userId() + '\n' + pending.session().getSessionToken(), pending) != null) {
+                repeats.add(pending);
+            }
+        }
+
+        batchSize.record(writes.size());
+        Timer.Sample sample = Timer.start();
+        try {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRecord.class);
+            writes.values().forEach(p -> checkInWriter.addTo(bulkOps, p.session(), p.userId(), p.joinTime()));
+
+            var result = bulkOps.execute();
+            int applied = result.getModifiedCount() + result.getUpserts().size();
+            if (applied == writes.size()) {
+                writes.values().forEach(p -> p.result().complete(true));
+            } else {
+                resolveIndividually(writes.values());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Check-in batch of {} failed, resolving entries individually", writes.size(), e);
+            resolveIndividually(writes.values());
+        } finally {
+            sample.stop(flushLatency);
+        }
+        repeats.forEach(p -> p.result().complete(false));
+        List<PendingCheckIn> applied = applied(writes.values());
+        try {
+            sessionCounters.countPresent(applied.stream()
+                    .collect(Collectors.toMap(p -> p.session().getSessionToken(), p -> 1, Integer::sum)));
+            attendanceSummaries.countAttended(applied.stream()
+                    .map(p -> Pair.of(p.userId(), p.session().getSection()))
+                    .toList());
+        } catch (RuntimeException e) {
+            // The check-ins are written; the counters catch up on the next reconcile or verify.
+            log.warn("Counting {} batched check-in(s) failed", applied.size(), e);
+        }
+    }
+
+    private void resolveIndividually(Iterable<PendingCheckIn> pending) {
+        for (PendingCheckIn p : pending) {
+            try {
+                p.result().complete(checkInWriter.wasApplied(p.session(), p.userId(), p.joinTime()));
+            } catch (RuntimeException e) {
+                p.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private static List<PendingCheckIn> applied(Iterable<PendingCheckIn> pending) {
+        List<PendingCheckIn> applied = new ArrayList<>();
+        for (PendingCheckIn p : pending) {
+            if (p.result().state() == Future.State.SUCCESS && p.result().resultNow()) {
+                applied.add(p);
+            }
+        }
+        return applied;
+    }
+
+    private record PendingCheckIn(Session session, String userId, LocalDateTime joinTime,
+                                  CompletableFuture<Boolean> result) {
+    }
+}
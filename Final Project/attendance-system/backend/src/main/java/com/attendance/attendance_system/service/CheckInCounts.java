@@ -0,0 +1,94 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Counts check-ins written on the request thread (SessionCounters.presentCount and the
+ * student's AttendanceSummary) without making the request wait for it: count() only queues
+ * the check-in, and a background worker sends the increments for everything queued as one
+ * bulk write per collection. When the queue is full the count is dropped and left for
+ * SessionCounters.reconcile and AttendanceSummaries.verify, like any other failed increment.
+ */
+@Component
+public class CheckInCounts {
+
+    private final SessionCounters sessionCounters;
+    private final AttendanceSummaries attendanceSummaries;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Counted> queue;
+    private final Counter dropped;
+
+    private BatchWorker<Counted> writer;
+
+    public CheckInCounts(SessionCounters sessionCounters,
+                         AttendanceSummaries attendanceSummaries,
+                         MeterRegistry meterRegistry,
+                         @Value("${attendance.check-in.counts.batch-size:500}") int batchSize,
+                         @Value("${attendance.check-in.counts.max-delay-ms:50}") long maxDelayMillis,
+                         @Value("${attendance.check-in.counts.queue-capacity:10000}") int queueCapacity) {
+        this.sessionCounters = sessionCounters;
+        this.attendanceSummaries = attendanceSummaries;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("attendance.checkin.counts.dropped")
+                .description("Check-in counts dropped because the queue was full; the verifiers restore them")
+                .register(meterRegistry);
+        Gauge.builder("attendance.checkin.counts.queue", queue, BlockingQueue::size)
+                .description("Check-ins waiting to be counted")
+                .register(meterRegistry);
+    }
+
+    public void count(Session session, String userId) {
+        if (!queue.offer(new Counted(session.getSessionToken(), userId, session.getSection()))) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new BatchWorker<>("check-in-counts", "check-in count(s)", 100,
+                () -> BatchWorker.poll(queue, batchSize, maxDelayNanos), this::write);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        List<Counted> remaining = new ArrayList<>(writer.stop());
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    /**
+     * Never throws: both counters log and skip a failed increment, so a batch is never
+     * retried and counted twice.
+     */
+    private void write(List<Counted> batch) {
+        sessionCounters.countPresent(batch.stream()
+                .collect(Collectors.toMap(Counted::token, counted -> 1, Integer::sum)));
+        attendanceSummaries.countAttended(batch.stream()
+                .map(counted -> Pair.of(counted.userId(), counted.section()))
+                .toList());
+    }
+
+    private record Counted(String token, String userId, String section) {
+    }
+}
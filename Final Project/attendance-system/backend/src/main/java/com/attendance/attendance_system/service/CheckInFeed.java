@@ -0,0 +1,389 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.CheckInRecord;
+import com.attendance.attendance_system.model.Session;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes each successful check-in to the admins watching its session, so the records view
+ * no longer has to poll.
+ *
+ * checkIn only hands the event to the feed's dispatcher thread, which owns all feed state, so
+ * there are no locks on the check-in path. Each event is serialized once and the same JSON is
+ * queued for every viewer. Each viewer has its own bounded buffer, drained by a small pool of
+ * sender threads, so a slow connection only delays itself. A viewer that falls more than
+ * subscriber-buffer events behind gets "reset" in place of the backlog and reloads the list.
+ * The last replay-size events of every open session are kept so a reconnecting viewer gets
+ * what it missed after its Last-Event-ID; if that is no longer buffered (or the id is from
+ * before a restart) it is told to reload. If more than queue-capacity events wait for the
+ * dispatcher, new ones are dropped and every viewer is told to reload.
+ *
+ * A feed is only created while its session is open, so a check-in published after close (a
+ * journal replay, a late batch flush, a check-in racing the expiry) cannot bring it back.
+ *
+ * Only check-ins handled by this instance are published.
+ */
+@Slf4j
+@Component
+public class CheckInFeed {
+
+    private final ObjectMapper objectMapper;
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private final int queueCapacity;
+    // Event ids are "<epoch>-<seq>", so ids handed out before a restart are recognised as stale.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("check-in-feed").daemon().factory());
+    // Each subscriber has at most one drain task queued, so this queue is bounded by their number.
+    private final ExecutorService senders;
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final Counter dropped;
+    private final Counter lagging;
+
+    // Only touched on the dispatcher thread.
+    private final Map<String, Feed> feeds = new HashMap<>();
+
+    public CheckInFeed(ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${attendance.feed.replay-size:1000}") int replaySize,
+                       @Value("${attendance.feed.heartbeat-seconds:15}") long heartbeatSeconds,
+                       @Value("${attendance.feed.subscriber-buffer:1024}") int subscriberBuffer,
+                       @Value("${attendance.feed.queue-capacity:10000}") int queueCapacity,
+                       @Value("${attendance.feed.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.replaySize = replaySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.queueCapacity = queueCapacity;
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                Thread.ofPlatform().name("check-in-feed-sender-", 0).daemon().factory());
+        this.dropped = Counter.builder("attendance.feed.dropped")
+                .description("Check-in events dropped because the feed's dispatcher was behind")
+                .register(meterRegistry);
+        this.lagging = Counter.builder("attendance.feed.lagging")
+                .description("Viewers told to reload because their send buffer filled up")
+                .register(meterRegistry);
+        dispatcher.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Something that receives a session's events, e.g. one SSE connection. Called on a sender
+     * thread, one call at a time per viewer; a viewer that throws is dropped.
+     */
+    public interface Viewer {
+
+        void checkIn(String eventId, String json) throws IOException;
+
+        /** Events after the viewer's Last-Event-ID are gone; it should reload the full list. */
+        void reset() throws IOException;
+
+        void heartbeat() throws IOException;
+
+        /** The session has closed and no more events will come. */
+        void closed();
+    }
+
+    public void publish(Session session, String userId, LocalDateTime joinTime) {
+        String token = session.getSessionToken();
+        if (pendingEvents.incrementAndGet() > queueCapacity) {
+            pendingEvents.decrementAndGet();
+            dropped.increment();
+            overflowed.set(true);
+            return;
+        }
+        dispatcher.execute(() -> {
+            pendingEvents.decrementAndGet();
+            resetAfterOverflow();
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(new CheckInRecord(userId, joinTime));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not serialize check-in of {} to {}", userId, token, e);
+                return;
+            }
+            Feed feed = openFeed(session);
+            if (feed == null) {
+                return;
+            }
+            Event event = feed.append(json, replaySize);
+            String eventId = eventId(event);
+            feed.viewers.removeIf(Subscriber::isGone);
+            feed.viewers.forEach(subscriber -> subscriber.send(viewer -> viewer.checkIn(eventId, event.json())));
+        });
+    }
+
+    /**
+     * Replays what the viewer missed after lastEventId (everything buffered when it is null),
+     * then sends new events as they happen. Run the returned task to stop.
+     */
+    public Runnable subscribe(Session session, String lastEventId, Viewer viewer) {
+        String token = session.getSessionToken();
+        Subscriber subscriber = new Subscriber(viewer);
+        dispatcher.execute(() -> {
+            resetAfterOverflow();
+            Feed feed = openFeed(session);
+            if (feed == null) {
+                // Closed since the caller checked.
+                subscriber.close();
+                return;
+            }
+            long after = sequenceOf(lastEventId);
+            if (after < 0 || after < feed.firstSeq() - 1 || after > feed.lastSeq) {
+                if (after != 0) {
+                    subscriber.send(Viewer::reset);
+                }
+                after = feed.firstSeq() - 1;
+            }
+            for (Event event : feed.recent) {
+                if (event.seq() > after) {
+                    String eventId = eventId(event);
+                    subscriber.send(v -> v.checkIn(eventId, event.json()));
+                }
+            }
+            feed.viewers.add(subscriber);
+        });
+        return () -> unsubscribe(token, subscriber);
+    }
+
+    /**
+     * Tells the session's viewers it has closed and forgets its events.
+     */
+    public void close(String token) {
+        dispatcher.execute(() -> {
+            Feed feed = feeds.remove(token);
+            if (feed != null) {
+                feed.viewers.forEach(Subscriber::close);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        dispatcher.execute(() -> {
+            feeds.values().forEach(feed -> feed.viewers.forEach(Subscriber::close));
+            feeds.clear();
+        });
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(1, TimeUnit.SECONDS);
+        senders.shutdown();
+        senders.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The session's feed, created if the session is still open; null once it has closed.
+     */
+    private Feed openFeed(Session session) {
+        Feed feed = feeds.get(session.getSessionToken());
+        if (feed == null && session.isActive() && LocalDateTime.now().isBefore(session.getExpiresAt())) {
+            feed = new Feed();
+            feeds.put(session.getSessionToken(), feed);
+        }
+        return feed;
+    }
+
+    private void unsubscribe(String token, Subscriber subscriber) {
+        subscriber.gone = true;
+        try {
+            dispatcher.execute(() -> {
+                Feed feed = feeds.get(token);
+                if (feed != null) {
+                    feed.viewers.remove(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the feed is being discarded anyway.
+        }
+    }
+
+    private void heartbeat() {
+        feeds.values().forEach(feed -> {
+            feed.viewers.removeIf(Subscriber::isGone);
+            feed.viewers.forEach(Subscriber::heartbeat);
+        });
+    }
+
+    /**
+     * Events were dropped before they got a sequence number, so no viewer can be sure it has
+     * every check-in. Leaves a gap in every feed's sequence, so no Last-Event-ID from before it
+     * can be replayed, and tells every viewer to reload.
+     */
+    private void resetAfterOverflow() {
+        if (!overflowed.getAndSet(false)) {
+            return;
+        }
+        feeds.values().forEach(feed -> {
+            feed.recent.clear();
+            feed.lastSeq++;
+            feed.viewers.forEach(subscriber -> subscriber.send(Viewer::reset));
+        });
+    }
+
+    private String eventId(Event event) {
+        return epoch + "-" + event.seq();
+    }
+
+    /**
+     * The sequence number in an id from this run, 0 for none, -1 for one that cannot be used.
+     */
+    private long sequenceOf(String eventId) {
+        if (eventId == null || eventId.isBlank()) {
+            return 0;
+        }
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private interface Delivery {
+
+        void to(Viewer viewer) throws IOException;
+    }
+
+    /**
+     * One viewer and its own bounded buffer of deliveries, drained by a sender thread so that a
+     * slow connection only holds itself up. A viewer whose buffer fills has fallen too far
+     * behind to catch up: what it has not been sent yet is replaced by a reset.
+     */
+    private final class Subscriber {
+        private final Viewer viewer;
+        private final Deque<Delivery> outbox = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closing;
+        private volatile boolean gone;
+
+        Subscriber(Viewer viewer) {
+            this.viewer = viewer;
+        }
+
+        boolean isGone() {
+            return gone;
+        }
+
+        void send(Delivery delivery) {
+            synchronized (this) {
+                if (gone || closing) {
+                    return;
+                }
+                if (outbox.size() >= subscriberBuffer) {
+                    outbox.clear();
+                    outbox.add(Viewer::reset);
+                    lagging.increment();
+                } else {
+                    outbox.add(delivery);
+                }
+            }
+            schedule();
+        }
+
+        /** Only when nothing is waiting: a viewer with a backlog is not idle. */
+        void heartbeat() {
+            synchronized (this) {
+                if (!outbox.isEmpty()) {
+                    return;
+                }
+            }
+            send(Viewer::heartbeat);
+        }
+
+        void close() {
+            synchronized (this) {
+                if (gone || closing) {
+                    return;
+                }
+                closing = true;
+                outbox.add(Viewer::closed);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (draining || outbox.isEmpty()) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+                gone = true;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Delivery next;
+                synchronized (this) {
+                    next = outbox.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    next.to(viewer);
+                } catch (IOException | RuntimeException e) {
+                    synchronized (this) {
+                        gone = true;
+                        outbox.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Feed {
+        private final Deque<Event> recent = new ArrayDeque<>();
+        private final List<Subscriber> viewers = new ArrayList<>();
+        private long lastSeq;
+
+        Event append(String json, int replaySize) {
+            Event event = new Event(++lastSeq, json);
+            recent.addLast(event);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            return event;
+        }
+
+        long firstSeq() {
+            return recent.isEmpty() ? lastSeq + 1 : recent.peekFirst().seq();
+        }
+    }
+
+    private record Event(long seq, String json) {
+    }
+}
@@ -0,0 +1,267 @@
+package com.attendance.attendance_system.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of accepted check-ins.
+ *
+ * Entries go into fixed-size segment files named by an increasing id. Each entry is
+ * [int length][payload][int crc32], and a zero length marks the end of a segment.
+ * CheckInJournalReplayer reads entries back in order, applies them to Mongo and records a
+ * checkpoint; segments behind the checkpoint are deleted.
+ */
+@Slf4j
+@Component
+public class CheckInJournal {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final NavigableSet<Long> segments = new ConcurrentSkipListSet<>();
+
+    private FileChannel writeChannel;
+    private MappedByteBuffer writeBuffer;
+    private volatile Position head;
+
+    private long readSegmentId = -1;
+    private MappedByteBuffer readBuffer;
+
+    public CheckInJournal(@Value("${attendance.journal.enabled:false}") boolean enabled,
+                          @Value("${attendance.journal.dir:./data/check-in-journal}") String directory,
+                          @Value("${attendance.journal.segment-size-bytes:8388608}") int segmentSize) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .forEach(segments::add);
+        }
+        deleteSegmentsBefore(readCheckpoint().segmentId());
+
+        // Segments left over from a previous run are sealed; always start writing a fresh one.
+        long next = segments.isEmpty() ? 0 : segments.last() + 1;
+        openWriteSegment(next);
+        log.info("Check-in journal opened at {} with {} segment(s) to replay", directory, segments.size() - 1);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (writeChannel != null) {
+            writeBuffer.force();
+            writeChannel.close();
+        }
+    }
+
+    /**
+     * Appends a check-in and forces it to disk before returning.
+     */
+    public void append(String userId, String token, LocalDateTime joinTime) {
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        byte[] tok = token.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + 2 * Short.BYTES + user.length + tok.length);
+        payload.putLong(joinTime.atZone(ZONE).toInstant().toEpochMilli());
+        payload.putShort((short) user.length).put(user);
+        payload.putShort((short) tok.length).put(tok);
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        int entrySize = Integer.BYTES + payload.remaining() + Integer.BYTES;
+
+        appendLock.lock();
+        try {
+            // Leave room for the zero-length end marker.
+            if (writeBuffer.remaining() < entrySize + Integer.BYTES) {
+                openWriteSegment(head.segmentId() + 1);
+            }
+            int start = writeBuffer.position();
+            writeBuffer.putInt(payload.remaining());
+            writeBuffer.put(payload);
+            writeBuffer.putInt((int) crc.getValue());
+            writeBuffer.force(start, entrySize);
+            head = new Position(head.segmentId(), writeBuffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll check-in journal segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to max entries starting at the given position. Only called from the replayer thread.
+     */
+    public List<Entry> read(Position from, int max) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Position current = from;
+        Position written = head;
+
+        while (entries.size() < max) {
+            Long segmentId = segments.ceiling(current.segmentId());
+            if (segmentId == null || segmentId > written.segmentId()) {
+                break;
+            }
+            if (segmentId != current.segmentId()) {
+                current = new Position(segmentId, 0);
+            }
+            ByteBuffer buffer = mapForRead(segmentId).duplicate();
+            boolean sealed = segmentId < written.segmentId();
+            int limit = sealed ? buffer.limit() : written.offset();
+
+            buffer.position(current.offset());
+            while (entries.size() < max) {
+                Entry entry = readEntry(buffer, current.segmentId(), limit);
+                if (entry == null) {
+                    break;
+                }
+                entries.add(entry);
+                current = entry.next();
+            }
+            if (entries.size() >= max || !sealed) {
+                break;
+            }
+            current = new Position(segmentId + 1, 0);
+        }
+        return entries;
+    }
+
+    public Position readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return new Position(segments.isEmpty() ? 0 : segments.first(), 0);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        return new Position(buffer.getLong(), buffer.getInt());
+    }
+
+    /**
+     * Records that everything before this position reached Mongo and drops the segments behind it.
+     */
+    public void checkpoint(Position applied) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(applied.segmentId())
+                .putInt(applied.offset());
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(tmp, buffer.array(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.SYNC);
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        deleteSegmentsBefore(applied.segmentId());
+    }
+
+    private Entry readEntry(ByteBuffer buffer, long segmentId, int limit) {
+        int start = buffer.position();
+        if (start + Integer.BYTES > limit) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length <= 0 || start + 2 * Integer.BYTES + length > limit) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        int storedCrc = buffer.getInt();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != storedCrc) {
+            // Torn write from a crash; nothing after it in this segment was acknowledged.
+            log.warn("Check-in journal segment {} has a corrupt entry at offset {}", segmentId, start);
+            return null;
+        }
+
+        LocalDateTime joinTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(payload.getLong()), ZONE);
+        String userId = readString(payload);
+        String token = readString(payload);
+        return new Entry(userId, token, joinTime, new Position(segmentId, buffer.position()));
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void openWriteSegment(long segmentId) throws IOException {
+        if (writeChannel != null) {
+            writeBuffer.force();
+            writeChannel.close();
+        }
+        writeChannel = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeBuffer = writeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.add(segmentId);
+        head = new Position(segmentId, 0);
+    }
+
+    private MappedByteBuffer mapForRead(long segmentId) throws IOException {
+        if (segmentId != readSegmentId) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ)) {
+                readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+            }
+            readSegmentId = segmentId;
+        }
+        return readBuffer;
+    }
+
+    private void deleteSegmentsBefore(long segmentId) throws IOException {
+        for (Long old : List.copyOf(segments.headSet(segmentId))) {
+            Files.deleteIfExists(segmentPath(old));
+            segments.remove(old);
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%020d%s", segmentId, SEGMENT_SUFFIX));
+    }
+
+    public record Position(long segmentId, int offset) {
+    }
+
+    public record Entry(String userId, String token, LocalDateTime joinTime, Position next) {
+    }
+}
@@ -0,0 +1,182 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Applies journaled check-ins to Mongo in the background, in journal order, and only then
+ * publishes them to the live feed and the activity log. An entry that cannot be applied is
+ * dropped, counted and logged, and taken out of the ledger so the student can scan again.
+ * The write only matches a record that is not yet present (or inserts one that does not exist
+ * yet in lazy-roster mode), so replaying an entry twice, for example after a restart before the
+ * checkpoint was written, leaves the record unchanged.
+ */
+@Slf4j
+@Component
+public class CheckInJournalReplayer {
+
+    private final CheckInJournal journal;
+    private final CheckInWriter checkInWriter;
+    private final SessionCounters sessionCounters;
+    private final AttendanceSummaries attendanceSummaries;
+    private final SessionTokenCache sessionTokenCache;
+    private final CheckInLedger checkInLedger;
+    private final CheckInFeed checkInFeed;
+    private final AttendanceEventLog attendanceEventLog;
+    private final MongoTemplate mongoTemplate;
+    private final Counter dropped;
+    private final int batchSize;
+    private final long idleMillis;
+
+    private BatchWorker<CheckInJournal.Entry> replayer;
+    // Only touched by the replayer thread once it has started.
+    private CheckInJournal.Position position;
+
+    public CheckInJournalReplayer(CheckInJournal journal,
+                                  CheckInWriter checkInWriter,
+                                  SessionCounters sessionCounters,
+                                  AttendanceSummaries attendanceSummaries,
+                                  SessionTokenCache sessionTokenCache,
+                                  CheckInLedger checkInLedger,
+                                  CheckInFeed checkInFeed,
+                                  AttendanceEventLog attendanceEventLog,
+                                  MongoTemplate mongoTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${attendance.journal.replay-batch-size:500}") int batchSize,
+                                  @Value("${attendance.journal.replay-idle-ms:20}") long idleMillis) {
+        this.journal = journal;
+        this.checkInWriter = checkInWriter;
+        this.sessionCounters = sessionCounters;
+        this.attendanceSummaries = attendanceSummaries;
+        this.sessionTokenCache = sessionTokenCache;
+        this.checkInLedger = checkInLedger;
+        this.checkInFeed = checkInFeed;
+        this.attendanceEventLog = attendanceEventLog;
+        this.mongoTemplate = mongoTemplate;
+        this.dropped = Counter.builder("attendance.journal.dropped")
+                .description("Journaled check-ins the replayer could not apply")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.idleMillis = idleMillis;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        position = journal.readCheckpoint();
+        replayer = new BatchWorker<>("check-in-journal-replayer", "journaled check-in(s)", idleMillis,
+                this::read, this::replay);
+        replayer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (replayer != null) {
+            replayer.stop();
+        }
+    }
+
+    private List<CheckInJournal.Entry> read() throws IOException, InterruptedException {
+        List<CheckInJournal.Entry> entries = journal.read(position, batchSize);
+        if (entries.isEmpty()) {
+            TimeUnit.MILLISECONDS.sleep(idleMillis);
+        }
+        return entries;
+    }
+
+    private void replay(List<CheckInJournal.Entry> entries) throws IOException {
+        apply(entries);
+        position = entries.get(entries.size() - 1).next();
+        journal.checkpoint(position);
+    }
+
+    private void apply(List<CheckInJournal.Entry> entries) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRecord.class);
+        Map<String, Optional<Session>> sessions = new HashMap<>();
+        List<Replayed> queued = new ArrayList<>();
+        for (CheckInJournal.Entry entry : entries) {
+            Optional<Session> session = sessions.computeIfAbsent(entry.token(), sessionTokenCache::get);
+            if (session.isEmpty()) {
+                drop(entry, "unknown session");
+                continue;
+            }
+            checkInWriter.addTo(bulkOps, session.get(), entry.userId(), entry.joinTime());
+            queued.add(new Replayed(entry, session.get()));
+        }
+        if (queued.isEmpty()) {
+            return;
+        }
+        var result = bulkOps.execute();
+        int applied = result.getModifiedCount() + result.getUpserts().size();
+        if (applied == queued.size()) {
+            count(queued);
+            queued.forEach(this::publish);
+            return;
+        }
+
+        // The bulk result does not say which entries were no-ops. An entry whose join time is
+        // stored was applied, now or by a run that stopped before its checkpoint; the rest are
+        // repeats of an earlier check-in or were rejected by the write.
+        for (Replayed replayed : queued) {
+            CheckInJournal.Entry entry = replayed.entry();
+            if (checkInWriter.wasApplied(replayed.session(), entry.userId(), entry.joinTime())) {
+                publish(replayed);
+            } else if (!checkInWriter.isPresent(replayed.session(), entry.userId())) {
+                drop(entry, "no attendance record to mark");
+                checkInLedger.forget(entry.token(), entry.userId());
+            }
+        }
+        // Which applied entries are new is unknown too; recount the sessions involved.
+        // Attendance summaries are left for AttendanceSummaries.verify.
+        queued.stream().map(replayed -> replayed.entry().token()).distinct().forEach(sessionCounters::reconcile);
+    }
+
+    private void count(List<Replayed> applied) {
+        try {
+            sessionCounters.countPresent(applied.stream()
+                    .collect(Collectors.toMap(replayed -> replayed.entry().token(), replayed -> 1, Integer::sum)));
+            attendanceSummaries.countAttended(applied.stream()
+                    .map(replayed -> Pair.of(replayed.entry().userId(), replayed.session().getSection()))
+                    .toList());
+        } catch (RuntimeException e) {
+            // The check-ins are written; the counters catch up on the next reconcile or verify.
+            log.warn("Counting {} replayed check-in(s) failed", applied.size(), e);
+        }
+    }
+
+    private void publish(Replayed replayed) {
+        CheckInJournal.Entry entry = replayed.entry();
+        checkInFeed.publish(replayed.session(), entry.userId(), entry.joinTime());
+        attendanceEventLog.checkIn(replayed.session(), entry.userId(), entry.joinTime());
+    }
+
+    private void drop(CheckInJournal.Entry entry, String reason) {
+        dropped.increment();
+        log.warn("Dropping journaled check-in of {} to session {} at {}: {}",
+                entry.userId(), entry.token(), entry.joinTime(), reason);
+    }
+
+    private record Replayed(CheckInJournal.Entry entry, Session session) {
+    }
+}
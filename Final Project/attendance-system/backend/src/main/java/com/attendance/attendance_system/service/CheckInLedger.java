@@ -0,0 +1,117 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.AttendanceRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who has already checked in to each open session, so repeat scans are rejected without
+ * a Mongo read. Only sessions opened here (or rebuilt at startup) are tracked; for any other
+ * session contains() is false and checkIn falls back to the database as before.
+ *
+ * For sessions with a pre-written roster it also keeps the roster, so the journaled check-in
+ * path can validate a student without a read.
+ */
+@Component
+public class CheckInLedger {
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, Set<String>> checkedIn = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> rosters = new ConcurrentHashMap<>();
+    private final Counter duplicatesRejected;
+
+    public CheckInLedger(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.duplicatesRejected = Counter.builder("attendance.checkin.duplicates.rejected")
+                .description("Repeat scans answered from memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts tracking a new session; roster is null in lazy-roster mode, where there is none.
+     */
+    public void open(String token, Collection<String> roster) {
+        checkedIn.putIfAbsent(token, ConcurrentHashMap.newKeySet());
+        if (roster != null) {
+            rosters.put(token, Set.copyOf(roster));
+        }
+    }
+
+    /**
+     * Starts tracking a session that already has check-ins, e.g. after a restart. With a
+     * pre-written roster every record is read, to rebuild the roster as well.
+     */
+    public void rebuild(String token, boolean lazyRoster) {
+        Criteria criteria = Criteria.where("sessionId").is(token);
+        Query query = new Query(lazyRoster ? criteria.and("present").is(true) : criteria);
+        query.fields().include("userId", "present");
+
+        Set<String> users = ConcurrentHashMap.newKeySet();
+        Set<String> roster = new HashSet<>();
+        mongoTemplate.find(query, AttendanceRecord.class).forEach(record -> {
+            roster.add(record.getUserId());
+            if (record.isPresent()) {
+                users.add(record.getUserId());
+            }
+        });
+        checkedIn.put(token, users);
+        if (!lazyRoster) {
+            rosters.put(token, Set.copyOf(roster));
+        }
+    }
+
+    public void close(String token) {
+        checkedIn.remove(token);
+        rosters.remove(token);
+    }
+
+    /**
+     * Whether the session's roster is held here; isOnRoster is only meaningful if so.
+     */
+    public boolean tracksRoster(String token) {
+        return rosters.containsKey(token);
+    }
+
+    public boolean isOnRoster(String token, String userId) {
+        Set<String> roster = rosters.get(token);
+        return roster != null && roster.contains(userId);
+    }
+
+    public boolean isDuplicate(String token, String userId) {
+        Set<String> users = checkedIn.get(token);
+        if (users != null && users.contains(userId)) {
+            duplicatesRejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void record(String token, String userId) {
+        Set<String> users = checkedIn.get(token);
+        if (users != null) {
+            users.add(userId);
+        }
+    }
+
+    /**
+     * Undoes record for a check-in that was accepted but never written, so the student can
+     * scan again.
+     */
+    public void forget(String token, String userId) {
+        Set<String> users = checkedIn.get(token);
+        if (users != null) {
+            users.remove(userId);
+        }
+    }
+}
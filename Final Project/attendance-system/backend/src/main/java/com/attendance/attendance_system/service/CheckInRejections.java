@@ -0,0 +1,49 @@
+package com.attendance.attendance_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts check-ins turned away before any write, as attendance.checkin.rejected{reason=...}.
+ * Repeat scans have their own counter in CheckInLedger.
+ */
+@Component
+public class CheckInRejections {
+
+    public enum Reason {
+        /** Not a token this server could have issued: wrong shape, length or encoding. */
+        MALFORMED,
+        /** Signed value whose signature does not match. */
+        FORGED,
+        /** Signed value outside its rotation window. */
+        STALE_QR,
+        /** Bare session token while attendance.qr.require-signed is on. */
+        UNSIGNED,
+        /** Well-formed token with no session behind it. */
+        UNKNOWN_SESSION,
+        /** Signed section differs from the session's. */
+        WRONG_SECTION,
+        /** Session closed or past expiresAt. */
+        SESSION_EXPIRED
+    }
+
+    private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+
+    public CheckInRejections(MeterRegistry meterRegistry) {
+        for (Reason reason : Reason.values()) {
+            counters.put(reason, Counter.builder("attendance.checkin.rejected")
+                    .description("Check-ins rejected before any write")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public void count(Reason reason) {
+        counters.get(reason).increment();
+    }
+}
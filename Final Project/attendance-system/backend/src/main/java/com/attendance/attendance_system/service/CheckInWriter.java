@@ -0,0 +1,133 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * The conditional write that marks a student present. Shared by the direct path in
+ * AttendanceService and the batched path in CheckInBatcher so both apply the same update.
+ *
+ * With a pre-written roster the placeholder record is flipped to present. In lazy-roster mode
+ * there is no placeholder, so the record is inserted; the unique (sessionId, userId) index
+ * turns a second insert into a no-op. The mode is the one the session was created in.
+ */
+@Component
+@RequiredArgsConstructor
+public class CheckInWriter {
+
+    private final MongoTemplate mongoTemplate;
+    private final CheckInCounts checkInCounts;
+
+    @Value("${attendance.roster.lazy:false}")
+    private boolean lazyRoster;
+
+    /**
+     * The roster mode new sessions are created in.
+     */
+    public boolean isLazyRoster() {
+        return lazyRoster;
+    }
+
+    /**
+     * The roster mode the session was created in; sessions from before it was recorded follow
+     * the current setting.
+     */
+    public boolean isLazyRoster(Session session) {
+        return session.getLazyRoster() != null ? session.getLazyRoster() : lazyRoster;
+    }
+
+    /**
+     * Whether the student belongs to the session's section. Only needed in lazy-roster mode,
+     * where there is no placeholder record to prove it.
+     */
+    public boolean isOnRoster(Session session, String userId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(userId)
+                .and("section").is(session.getSection())), User.class);
+    }
+
+    /**
+     * Writes the check-in and, if it marked the student present, queues it to be counted on the
+     * session and in the student's attendance summary, so the caller waits for one write.
+     */
+    public boolean apply(Session session, String userId, LocalDateTime joinTime) {
+        boolean applied = write(session, userId, joinTime);
+        if (applied) {
+            checkInCounts.count(session, userId);
+        }
+        return applied;
+    }
+
+    private boolean write(Session session, String userId, LocalDateTime joinTime) {
+        if (!isLazyRoster(session)) {
+            var result = mongoTemplate.updateFirst(filter(session, userId), update(session, joinTime),
+                    AttendanceRecord.class);
+            return result.getModifiedCount() > 0;
+        }
+        try {
+            var result = mongoTemplate.upsert(filter(session, userId), update(session, joinTime),
+                    AttendanceRecord.class);
+            return result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void addTo(BulkOperations bulkOps, Session session, String userId, LocalDateTime joinTime) {
+        if (isLazyRoster(session)) {
+            bulkOps.upsert(filter(session, userId), update(session, joinTime));
+        } else {
+            bulkOps.updateOne(filter(session, userId), update(session, joinTime));
+        }
+    }
+
+    /**
+     * True if this exact check-in (same join time) is the one stored in Mongo.
+     */
+    public boolean wasApplied(Session session, String userId, LocalDateTime joinTime) {
+        Query query = new Query(Criteria.where("sessionId").is(session.getSessionToken())
+                .and("userId").is(userId)
+                .and("present").is(true)
+                .and("joinTime").is(joinTime));
+        return mongoTemplate.exists(query, AttendanceRecord.class);
+    }
+
+    public boolean isPresent(Session session, String userId) {
+        Query query = new Query(Criteria.where("sessionId").is(session.getSessionToken())
+                .and("userId").is(userId)
+                .and("present").is(true));
+        return mongoTemplate.exists(query, AttendanceRecord.class);
+    }
+
+    Query filter(Session session, String userId) {
+        Criteria criteria = Criteria.where("sessionId").is(session.getSessionToken()).and("userId").is(userId);
+        if (!isLazyRoster(session)) {
+            criteria = criteria.and("present").is(false);
+        }
+        return new Query(criteria);
+    }
+
+    Update update(Session session, LocalDateTime joinTime) {
+        if (isLazyRoster(session)) {
+            return new Update()
+                    .setOnInsert("sessionName", session.getSessionName())
+                    .setOnInsert("section", session.getSection())
+                    .setOnInsert("present", true)
+                    .setOnInsert("joinTime", joinTime);
+        }
+        return new Update()
+                .set("present", true)
+                .set("joinTime", joinTime);
+    }
+}
@@ -0,0 +1,190 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.AttendanceResponse;
+import com.attendance.attendance_system.dto.QrTokenResponse;
+import com.attendance.attendance_system.model.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * Issues and checks the value shown in the session QR code. Instead of the bare session token
+ * the QR carries the token, the section and a validity window, signed with HMAC-SHA256:
+ *
+ *   v1.base64url(sessionToken \n section \n notBefore \n notAfter).base64url(mac)
+ *
+ * A new value is issued every rotate-seconds and stays valid for grace-windows more windows,
+ * so a screenshot stops working shortly after it was taken. Forged, malformed and stale values
+ * are rejected here without touching the cache or Mongo.
+ */
+@Slf4j
+@Component
+public class QrTokenService {
+
+    private static final String VERSION = "v1.";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    // Far above anything issue() produces; longer input is rejected before it is decoded or hashed.
+    private static final int MAX_LENGTH = 512;
+
+    private final CheckInRejections rejections;
+    private final Mac prototype;
+    private final long rotateSeconds;
+    private final int graceWindows;
+    private final boolean requireSigned;
+
+    public QrTokenService(CheckInRejections rejections,
+                          @Value("${attendance.qr.secret:}") String secret,
+                          @Value("${attendance.qr.rotate-seconds:30}") long rotateSeconds,
+                          @Value("${attendance.qr.grace-windows:1}") int graceWindows,
+                          @Value("${attendance.qr.require-signed:true}") boolean requireSigned) throws GeneralSecurityException {
+        if (rotateSeconds <= 0) {
+            throw new IllegalArgumentException("attendance.qr.rotate-seconds must be positive, was " + rotateSeconds);
+        }
+        if (graceWindows < 0) {
+            throw new IllegalArgumentException("attendance.qr.grace-windows must not be negative, was " + graceWindows);
+        }
+        this.rejections = rejections;
+        byte[] key;
+        if (secret.isBlank()) {
+            log.warn("attendance.qr.secret is not set; using a random key, so QR codes stop working on restart");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret);
+        }
+        this.prototype = Mac.getInstance("HmacSHA256");
+        this.prototype.init(new SecretKeySpec(key, "HmacSHA256"));
+        this.rotateSeconds = rotateSeconds;
+        this.graceWindows = graceWindows;
+        this.requireSigned = requireSigned;
+    }
+
+    public long getRotateSeconds() {
+        return rotateSeconds;
+    }
+
+    /**
+     * The QR value for the current window, and how long until the next one is issued.
+     */
+    public QrTokenResponse issue(Session session) {
+        long now = Instant.now().getEpochSecond();
+        long window = now / rotateSeconds;
+        long notBefore = window * rotateSeconds;
+        long notAfter = Math.min((window + 1 + graceWindows) * rotateSeconds,
+                session.getExpiresAt().atZone(ZONE).toEpochSecond());
+
+        String payload = session.getSessionToken() + "\n" + session.getSection() + "\n" + notBefore + "\n" + notAfter;
+        String signed = VERSION + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return new QrTokenResponse(signed + "." + ENCODER.encodeToString(mac(signed)), notBefore + rotateSeconds - now);
+    }
+
+    /**
+     * Turns a scanned value into the session token it stands for, or the response that
+     * rejects it.
+     */
+    public Scan resolve(String scanned) {
+        if (scanned == null || scanned.length() > MAX_LENGTH) {
+            return reject(CheckInRejections.Reason.MALFORMED, invalid());
+        }
+        if (!scanned.startsWith(VERSION)) {
+            if (!SessionTokenCache.isWellFormed(scanned)) {
+                return reject(CheckInRejections.Reason.MALFORMED, invalid());
+            }
+            return requireSigned
+                    ? reject(CheckInRejections.Reason.UNSIGNED, stale())
+                    : new Scan(scanned, null, null);
+        }
+
+        int dot = scanned.lastIndexOf('.');
+        if (dot <= VERSION.length()) {
+            return reject(CheckInRejections.Reason.MALFORMED, invalid());
+        }
+        String signed = scanned.substring(0, dot);
+        String[] fields;
+        byte[] mac;
+        try {
+            mac = DECODER.decode(scanned.substring(dot + 1));
+            fields = new String(DECODER.decode(signed.substring(VERSION.length())), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IllegalArgumentException e) {
+            return reject(CheckInRejections.Reason.MALFORMED, invalid());
+        }
+        if (!MessageDigest.isEqual(mac, mac(signed))) {
+            return reject(CheckInRejections.Reason.FORGED, invalid());
+        }
+        if (fields.length != 4) {
+            return reject(CheckInRejections.Reason.MALFORMED, invalid());
+        }
+
+        long now = Instant.now().getEpochSecond();
+        long notBefore;
+        long notAfter;
+        try {
+            notBefore = Long.parseLong(fields[2]);
+            notAfter = Long.parseLong(fields[3]);
+        } catch (NumberFormatException e) {
+            return reject(CheckInRejections.Reason.MALFORMED, invalid());
+        }
+        if (now < notBefore || now >= notAfter) {
+            return reject(CheckInRejections.Reason.STALE_QR, stale());
+        }
+        return new Scan(fields[0], fields[1], null);
+    }
+
+    private byte[] mac(String signed) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(signed.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Scan reject(CheckInRejections.Reason reason, AttendanceResponse response) {
+        rejections.count(reason);
+        return Scan.rejected(response);
+    }
+
+    private static AttendanceResponse stale() {
+        return new AttendanceResponse("This QR code is no longer valid. Scan the code currently shown.", HttpStatus.FORBIDDEN);
+    }
+
+    private static AttendanceResponse invalid() {
+        return new AttendanceResponse("Invalid or unknown session token.", HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * The outcome of resolving a scanned value. section is null for unsigned tokens, which
+     * are only accepted when attendance.qr.require-signed is false.
+     */
+    public record Scan(String sessionToken, String section, AttendanceResponse rejection) {
+
+        static Scan rejected(AttendanceResponse rejection) {
+            return new Scan(null, null, rejection);
+        }
+
+        public boolean isRejected() {
+            return rejection != null;
+        }
+
+        /**
+         * The signed section must still match the session's; a mismatch means the QR was issued
+         * for a different roster.
+         */
+        public boolean matches(Session session) {
+            return section == null || section.equals(session.getSection());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.config.MongoPoolConfig;
+import com.attendance.attendance_system.dto.AttendanceResponse;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.repository.ReactiveSessionRepository;
+import com.attendance.attendance_system.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking version of AttendanceService.checkIn for the reactive profile. Same checks,
+ * same responses and the same conditional write (built by CheckInWriter), but every Mongo call
+ * goes through the reactive driver, so a check-in never holds a thread while it waits. The
+ * journal append, which can block on the file, is the one step moved to a bounded-elastic thread.
+ *
+ * Backpressure: at most max-in-flight check-ins are admitted at once and the rest get 503
+ * straight away; admitted ones queue for a pooled connection for at most
+ * attendance.mongo.pool.max-wait-ms before they too get 503.
+ * The write-behind batcher is not used here; the reactive driver already pipelines writes.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveAttendanceService {
+
+    private final ReactiveSessionRepository sessionRepository;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final SessionTokenCache sessionTokenCache;
+    private final CheckInWriter checkInWriter;
+    private final CheckInCounts checkInCounts;
+    private final CheckInJournal checkInJournal;
+    private final CheckInLedger checkInLedger;
+    private final QrTokenService qrTokenService;
+    private final CheckInRejections checkInRejections;
+    private final CheckInFeed checkInFeed;
+    private final AttendanceEventLog attendanceEventLog;
+    private final AttendanceMigrationService attendanceMigrationService;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ReactiveAttendanceService(ReactiveSessionRepository sessionRepository,
+                                     ReactiveUserRepository userRepository,
+                                     ReactiveMongoTemplate mongoTemplate,
+                                     SessionTokenCache sessionTokenCache,
+                                     CheckInWriter checkInWriter,
+                                     CheckInCounts checkInCounts,
+                                     CheckInJournal checkInJournal,
+                                     CheckInLedger checkInLedger,
+                                     QrTokenService qrTokenService,
+                                     CheckInRejections checkInRejections,
+                                     CheckInFeed checkInFeed,
+                                     AttendanceEventLog attendanceEventLog,
+                                     AttendanceMigrationService attendanceMigrationService,
+                                     @Value("${attendance.reactive.max-in-flight:10000}") int maxInFlight) {
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.sessionTokenCache = sessionTokenCache;
+        this.checkInWriter = checkInWriter;
+        this.checkInCounts = checkInCounts;
+        this.checkInJournal = checkInJournal;
+        this.checkInLedger = checkInLedger;
+        this.qrTokenService = qrTokenService;
+        this.checkInRejections = checkInRejections;
+        this.checkInFeed = checkInFeed;
+        this.attendanceEventLog = attendanceEventLog;
+        this.attendanceMigrationService = attendanceMigrationService;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Mono<AttendanceResponse> checkIn(String token, String userId) {
+        return Mono.defer(() -> {
+            if (!attendanceMigrationService.isComplete()) {
+                return Mono.just(new AttendanceResponse("Attendance records are still being migrated. Try again shortly.",
+                        HttpStatus.SERVICE_UNAVAILABLE));
+            }
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                return Mono.just(busy());
+            }
+            QrTokenService.Scan scan = qrTokenService.resolve(token);
+            if (scan.isRejected()) {
+                inFlight.decrementAndGet();
+                return Mono.just(scan.rejection());
+            }
+            return findSession(scan.sessionToken())
+                    .flatMap(session -> {
+                        if (!scan.matches(session)) {
+                            checkInRejections.count(CheckInRejections.Reason.WRONG_SECTION);
+                            return Mono.just(unknownSession());
+                        }
+                        return checkIn(session, userId);
+                    })
+                    .switchIfEmpty(Mono.fromSupplier(() -> {
+                        checkInRejections.count(CheckInRejections.Reason.UNKNOWN_SESSION);
+                        return unknownSession();
+                    }))
+                    .onErrorResume(MongoPoolConfig::isPoolWaitTimeout, e -> Mono.just(busy()))
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    public Mono<Session> findOpenSession(String token) {
+        return findSession(token)
+                .filter(session -> session.isActive() && LocalDateTime.now().isBefore(session.getExpiresAt()));
+    }
+
+    private Mono<Session> findSession(String token) {
+        return Mono.justOrEmpty(sessionTokenCache.getCached(token))
+                .switchIfEmpty(Mono.defer(() -> sessionTokenCache.isKnownMissing(token)
+                        ? Mono.empty()
+                        : sessionRepository.findBySessionToken(token)
+                                .doOnNext(sessionTokenCache::put)
+                                .switchIfEmpty(Mono.fromRunnable(() -> sessionTokenCache.markMissing(token)))));
+    }
+
+    private Mono<AttendanceResponse> checkIn(Session session, String userId) {
+        String token = session.getSessionToken();
+        if (!session.isActive() || LocalDateTime.now().isAfter(session.getExpiresAt())) {
+            checkInRejections.count(CheckInRejections.Reason.SESSION_EXPIRED);
+            return Mono.just(new AttendanceResponse("Session has expired.", HttpStatus.FORBIDDEN));
+        }
+        if (checkInLedger.isDuplicate(token, userId)) {
+            return Mono.just(new AttendanceResponse("You have already checked in.", HttpStatus.CONFLICT));
+        }
+
+        return isOnRoster(session, userId).flatMap(member -> {
+            if (!member) {
+                return explainFailedCheckIn(token, userId);
+            }
+            LocalDateTime joinTime = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            if (checkInJournal.isEnabled()) {
+                // The append takes the journal's lock and may force the mapped file to disk, so it
+                // runs off the event loop. CheckInJournalReplayer writes it to Mongo and then
+                // publishes it.
+                return Mono.fromCallable(() -> {
+                            checkInJournal.append(userId, token, joinTime);
+                            checkInLedger.record(token, userId);
+                            return new AttendanceResponse("Attendance received for " + session.getSessionName(), HttpStatus.ACCEPTED);
+                        })
+                        .subscribeOn(Schedulers.boundedElastic());
+            }
+            return apply(session, userId, joinTime).flatMap(applied -> {
+                if (applied) {
+                    checkInLedger.record(token, userId);
+                    checkInFeed.publish(session, userId, joinTime);
+                    attendanceEventLog.checkIn(session, userId, joinTime);
+                    return Mono.just(new AttendanceResponse("Attendance recorded successfully for " + session.getSessionName(), HttpStatus.OK));
+                }
+                return explainFailedCheckIn(token, userId);
+            });
+        });
+    }
+
+    /**
+     * Whether the student may check in before anything is written. The conditional write itself
+     * checks a pre-written roster, so that is only looked up here for a journaled check-in,
+     * which is acknowledged before it is written.
+     */
+    private Mono<Boolean> isOnRoster(Session session, String userId) {
+        String token = session.getSessionToken();
+        if (checkInWriter.isLazyRoster(session)) {
+            return userRepository.existsByIdAndSection(userId, session.getSection());
+        }
+        if (!checkInJournal.isEnabled()) {
+            return Mono.just(true);
+        }
+        if (checkInLedger.tracksRoster(token)) {
+            return Mono.just(checkInLedger.isOnRoster(token, userId));
+        }
+        return mongoTemplate.exists(new Query(Criteria.where("sessionId").is(token).and("userId").is(userId)),
+                AttendanceRecord.class);
+    }
+
+    private Mono<Boolean> apply(Session session, String userId, LocalDateTime joinTime) {
+        return write(session, userId, joinTime).doOnNext(applied -> {
+            if (applied) {
+                checkInCounts.count(session, userId);
+            }
+        });
+    }
+
+    private Mono<Boolean> write(Session session, String userId, LocalDateTime joinTime) {
+        Query filter = checkInWriter.filter(session, userId);
+        if (!checkInWriter.isLazyRoster(session)) {
+            return mongoTemplate.updateFirst(filter, checkInWriter.update(session, joinTime), AttendanceRecord.class)
+                    .map(result -> result.getModifiedCount() > 0);
+        }
+        return mongoTemplate.upsert(filter, checkInWriter.update(session, joinTime), AttendanceRecord.class)
+                .map(result -> result.getUpsertedId() != null)
+                .onErrorReturn(DuplicateKeyException.class, false);
+    }
+
+    private Mono<AttendanceResponse> explainFailedCheckIn(String token, String userId) {
+        Query query = new Query(Criteria.where("sessionId").is(token).and("userId").is(userId));
+        return mongoTemplate.findOne(query, AttendanceRecord.class)
+                .map(record -> record.isPresent()
+                        ? new AttendanceResponse("You have already checked in.", HttpStatus.CONFLICT)
+                        : new AttendanceResponse("Could not update attendance record. Try again.", HttpStatus.INTERNAL_SERVER_ERROR))
+                .switchIfEmpty(Mono.defer(() -> userRepository.existsById(userId).map(exists -> exists
+                        ? new AttendanceResponse("No attendance record found for this session.", HttpStatus.NOT_FOUND)
+                        : new AttendanceResponse("User not found.", HttpStatus.NOT_FOUND))));
+    }
+
+    private static AttendanceResponse unknownSession() {
+        return new AttendanceResponse("Invalid or unknown session token.", HttpStatus.NOT_FOUND);
+    }
+
+    private static AttendanceResponse busy() {
+        return new AttendanceResponse("Too many check-ins in progress. Try again.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
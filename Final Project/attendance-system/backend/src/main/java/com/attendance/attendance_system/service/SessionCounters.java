@@ -0,0 +1,79 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.SessionCounts;
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * "Present out of roster" tallies kept on the Session document, so a dashboard reads one
+ * document instead of counting records. rosterSize is the section's size when generateToken
+ * opened the session; presentCount is bumped with $inc by whichever path wrote the check-in.
+ *
+ * The $inc is a second write after the record's, so a crash or a Mongo error in between leaves
+ * the count short. reconcile() recounts it from the attendance records; SessionExpiryScheduler
+ * runs it for every session as it closes, and admins can run it on demand.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionCounters {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * One $inc per session, sent as a single bulk write.
+     */
+    public void countPresent(Map<String, Integer> countsByToken) {
+        if (countsByToken.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Session.class);
+            countsByToken.forEach((token, count) -> bulkOps.updateOne(sessionQuery(token), increment(count)));
+            bulkOps.execute();
+        } catch (RuntimeException e) {
+            log.warn("Could not count check-ins for {} session(s); reconcile will correct them", countsByToken.size(), e);
+        }
+    }
+
+    public Optional<SessionCounts> read(String token) {
+        Query query = sessionQuery(token);
+        query.fields().include("rosterSize", "presentCount");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Session.class))
+                .map(session -> new SessionCounts(session.getRosterSize(), session.getPresentCount()));
+    }
+
+    /**
+     * Sets presentCount to the number of present records. A check-in landing while this runs
+     * may be counted once too few or too many; run it again once the session is quiet.
+     */
+    public Optional<SessionCounts> reconcile(String token) {
+        long present = mongoTemplate.count(new Query(Criteria.where("sessionId").is(token).and("present").is(true)),
+                AttendanceRecord.class);
+        var result = mongoTemplate.updateFirst(sessionQuery(token), new Update().set("presentCount", (int) present),
+                Session.class);
+        if (result.getMatchedCount() == 0) {
+            return Optional.empty();
+        }
+        return read(token);
+    }
+
+    static Query sessionQuery(String token) {
+        return new Query(Criteria.where("sessionToken").is(token));
+    }
+
+    static Update increment(int count) {
+        return new Update().inc("presentCount", count);
+    }
+}
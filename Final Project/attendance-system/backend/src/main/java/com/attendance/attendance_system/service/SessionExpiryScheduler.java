@@ -0,0 +1,190 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.repository.SessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flips Session.active to false at expiresAt, so "active" queries can use the indexed
+ * active=true predicate instead of re-checking time.
+ *
+ * Sessions are kept in a hashed timing wheel: each tick only looks at one slot, so the
+ * per-tick cost depends on how many sessions fall into that slot, not on how many are open.
+ * Sessions due in the same tick are closed with one updateMulti. The wheel and its cursor are
+ * guarded by one lock, so a session scheduled while a tick is being processed lands in a slot
+ * the cursor has not passed yet.
+ */
+@Slf4j
+@Component
+public class SessionExpiryScheduler {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final MongoTemplate mongoTemplate;
+    private final SessionRepository sessionRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final SessionTokenCache sessionTokenCache;
+    private final CheckInLedger checkInLedger;
+    private final CheckInWriter checkInWriter;
+    private final CheckInFeed checkInFeed;
+    private final SessionCounters sessionCounters;
+    private final long tickMillis;
+
+    private final List<Queue<Timeout>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final long startMillis = System.currentTimeMillis();
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private long nextTick;
+
+    public SessionExpiryScheduler(MongoTemplate mongoTemplate,
+                                  SessionRepository sessionRepository,
+                                  ActiveSessionRegistry activeSessionRegistry,
+                                  SessionTokenCache sessionTokenCache,
+                                  CheckInLedger checkInLedger,
+                                  CheckInWriter checkInWriter,
+                                  CheckInFeed checkInFeed,
+                                  SessionCounters sessionCounters,
+                                  @Value("${attendance.sessions.expiry-tick-ms:1000}") long tickMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.sessionRepository = sessionRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.sessionTokenCache = sessionTokenCache;
+        this.checkInLedger = checkInLedger;
+        this.checkInWriter = checkInWriter;
+        this.checkInFeed = checkInFeed;
+        this.sessionCounters = sessionCounters;
+        this.tickMillis = tickMillis;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+    }
+
+    public void schedule(Session session) {
+        schedule(session.getSessionToken(), session.getExpiresAt().atZone(ZONE).toInstant().toEpochMilli());
+    }
+
+    void schedule(String token, long deadline) {
+        long dueTick = (deadline - startMillis + tickMillis - 1) / tickMillis;
+        wheelLock.lock();
+        try {
+            // Already due (or due in a tick advance has passed): the next tick picks it up.
+            long tick = Math.max(dueTick, nextTick);
+            wheel.get((int) (tick % WHEEL_SIZE)).add(new Timeout(token, deadline));
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${attendance.sessions.expiry-tick-ms:1000}")
+    void advance() {
+        advance(System.currentTimeMillis());
+    }
+
+    void advance(long now) {
+        long currentTick = (now - startMillis) / tickMillis;
+        List<String> expired = new ArrayList<>();
+
+        wheelLock.lock();
+        try {
+            while (nextTick <= currentTick) {
+                Queue<Timeout> slot = wheel.get((int) (nextTick % WHEEL_SIZE));
+                // Entries due on a later lap of the wheel stay in the slot.
+                slot.removeIf(timeout -> timeout.deadline() <= now && expired.add(timeout.token()));
+                nextTick++;
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+
+        if (!expired.isEmpty()) {
+            close(expired);
+        }
+    }
+
+    /**
+     * Safety net for sessions the wheel missed, e.g. when Mongo was down at their tick. Closed
+     * the same way as on the wheel, so the registry, ledger and feed let go of them too.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    void closeOverdue() {
+        List<String> overdue;
+        try {
+            Query query = new Query(Criteria.where("active").is(true).and("expiresAt").lte(LocalDateTime.now()));
+            query.fields().include("sessionToken");
+            overdue = mongoTemplate.find(query, Session.class).stream()
+                    .map(Session::getSessionToken)
+                    .toList();
+        } catch (RuntimeException e) {
+            log.warn("Could not close overdue sessions", e);
+            return;
+        }
+        if (!overdue.isEmpty()) {
+            log.info("Closing {} overdue session(s)", overdue.size());
+            close(overdue);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofPlatform().name("session-expiry-reload").daemon().start(() -> {
+            closeOverdue();
+            try {
+                List<Session> active = sessionRepository.findByActiveTrue();
+                active.forEach(session -> {
+                    activeSessionRegistry.register(session);
+                    checkInLedger.rebuild(session.getSessionToken(), checkInWriter.isLazyRoster(session));
+                    schedule(session);
+                });
+                log.info("Loaded {} active session(s)", active.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not load active sessions", e);
+            }
+        });
+    }
+
+    private void close(List<String> tokens) {
+        tokens.forEach(token -> {
+            activeSessionRegistry.remove(token);
+            sessionTokenCache.evict(token);
+            checkInLedger.close(token);
+            checkInFeed.close(token);
+        });
+        try {
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("sessionToken").in(tokens).and("active").is(true)),
+                    new Update().set("active", false),
+                    Session.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not close {} expired session(s); closeOverdue will retry", tokens.size(), e);
+            return;
+        }
+        // No more check-ins are accepted, so the recount can settle any drift in presentCount.
+        tokens.forEach(token -> {
+            try {
+                sessionCounters.reconcile(token);
+            } catch (RuntimeException e) {
+                log.warn("Could not reconcile counts of session {}", token, e);
+            }
+        });
+    }
+
+    private record Timeout(String token, long deadline) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.repository.SessionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps live sessions in memory, keyed by token, so a QR burst reads Mongo once.
+ * Each entry is evicted at its session's expiresAt.
+ *
+ * Tokens that cannot exist are answered without a query: anything that is not a UUID is
+ * refused outright, and tokens Mongo did not know are remembered for negative-ttl-seconds.
+ */
+@Component
+public class SessionTokenCache {
+
+    private final SessionRepository sessionRepository;
+    private final Cache<String, Session> sessions;
+    private final Cache<String, Boolean> missing;
+
+    public SessionTokenCache(SessionRepository sessionRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${attendance.session-cache.max-size:10000}") long maxSize,
+                             @Value("${attendance.session-cache.negative-max-size:100000}") long negativeMaxSize,
+                             @Value("${attendance.session-cache.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this.sessionRepository = sessionRepository;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilSessionExpires())
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "sessionTokens");
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "missingSessionTokens");
+    }
+
+    /**
+     * Session tokens are UUID.randomUUID() strings; checked by hand so junk costs no regex.
+     */
+    public static boolean isWellFormed(String token) {
+        if (token == null || token.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = token.charAt(i);
+            boolean ok = (i == 8 || i == 13 || i == 18 || i == 23)
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True if a lookup for this token would certainly find nothing.
+     */
+    public boolean isKnownMissing(String token) {
+        return !isWellFormed(token) || missing.getIfPresent(token) != null;
+    }
+
+    public void markMissing(String token) {
+        missing.put(token, Boolean.TRUE);
+    }
+
+    public void put(Session session) {
+        missing.invalidate(session.getSessionToken());
+        if (session.getExpiresAt() != null && LocalDateTime.now().isBefore(session.getExpiresAt())) {
+            sessions.put(session.getSessionToken(), session);
+        }
+    }
+
+    /**
+     * Returns the cached session for this token without touching Mongo.
+     */
+    public Optional<Session> getCached(String token) {
+        return Optional.ofNullable(sessions.getIfPresent(token));
+    }
+
+    /**
+     * Returns the session for this token, loading it from Mongo on a miss.
+     * Unknown tokens are remembered as missing for a short while.
+     */
+    public Optional<Session> get(String token) {
+        Session cached = sessions.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (isKnownMissing(token)) {
+            return Optional.empty();
+        }
+        Optional<Session> loaded = sessionRepository.findBySessionToken(token);
+        if (loaded.isPresent()) {
+            put(loaded.get());
+        } else {
+            markMissing(token);
+        }
+        return loaded;
+    }
+
+    public void evict(String token) {
+        sessions.invalidate(token);
+    }
+
+    public long hitCount() {
+        return sessions.stats().hitCount();
+    }
+
+    public long missCount() {
+        return sessions.stats().missCount();
+    }
+
+    private static class UntilSessionExpires implements Expiry<String, Session> {
+
+        @Override
+        public long expireAfterCreate(String token, Session session, long currentTime) {
+            if (session.getExpiresAt() == null) {
+                return 0;
+            }
+            long nanos = Duration.between(LocalDateTime.now(), session.getExpiresAt()).toNanos();
+            return Math.max(nanos, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Session session, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Session session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
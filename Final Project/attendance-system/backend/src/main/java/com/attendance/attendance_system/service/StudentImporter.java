@@ -0,0 +1,344 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.ImportReport;
+import com.attendance.attendance_system.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk student import from a CSV or NDJSON upload. A CSV's header row must name all four
+ * columns: name, email, section and password. Emails are normalized as on signup. The upload is
+ * read as it arrives, batch-size rows at a time: one query finds the batch's emails that are
+ * already registered, then the rest go in as one unordered insert, the unique email index
+ * rejecting any duplicate that slipped past the query (including one repeated within the
+ * upload). Every row that is not imported is reported with its line and reason.
+ *
+ * Batches are not rolled back if a later one fails; importing the same file again imports only
+ * the rows that are still missing.
+ */
+@Component
+public class StudentImporter {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String EMAIL_IN_USE = "Email already in use.";
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final AttendanceEventLog attendanceEventLog;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public StudentImporter(MongoTemplate mongoTemplate,
+                           ObjectMapper objectMapper,
+                           AttendanceEventLog attendanceEventLog,
+                           @Value("${attendance.import.batch-size:500}") int batchSize,
+                           @Value("${attendance.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.attendanceEventLog = attendanceEventLog;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Throws IllegalArgumentException if a CSV upload is empty or its header lacks a required
+     * column.
+     */
+    public ImportReport importStudents(InputStream in, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader, objectMapper);
+        Progress progress = new Progress();
+        List<Row> batch = new ArrayList<>(batchSize);
+        for (Row row = rows.next(); row != null; row = rows.next()) {
+            progress.rows++;
+            String problem = row.problem() != null ? row.problem() : validate(row);
+            if (problem != null) {
+                progress.fail(row, problem);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                insert(batch, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, progress);
+        }
+        return progress.report();
+    }
+
+    private void insert(List<Row> batch, Progress progress) {
+        Query registered = new Query(Criteria.where("email").in(batch.stream().map(Row::email).toList()));
+        registered.fields().include("email");
+        Set<String> existing = mongoTemplate.find(registered, User.class).stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+
+        List<Row> pending = new ArrayList<>(batch.size());
+        List<User> users = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (existing.contains(row.email())) {
+                progress.fail(row, EMAIL_IN_USE);
+                continue;
+            }
+            User user = new User();
+            // Assigned here so the activity log can name the new students.
+            user.setId(new ObjectId().toHexString());
+            user.setName(row.name());
+            user.setEmail(row.email());
+            user.setPassword(row.password());
+            user.setSection(row.section());
+            pending.add(row);
+            users.add(user);
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> rejected = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+                    .insert(users)
+                    .execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                rejected.add(error.getIndex());
+                progress.fail(pending.get(error.getIndex()),
+                        error.getCode() == DUPLICATE_KEY ? EMAIL_IN_USE : error.getMessage());
+            });
+        }
+        for (int i = 0; i < users.size(); i++) {
+            if (!rejected.contains(i)) {
+                User user = users.get(i);
+                progress.imported++;
+                attendanceEventLog.sectionAssigned(user.getId(), null, user.getSection());
+            }
+        }
+    }
+
+    private static String validate(Row row) {
+        if (row.name() == null) {
+            return "Name is required.";
+        }
+        if (row.email() == null) {
+            return "Email is required.";
+        }
+        if (row.email().indexOf('@') < 1) {
+            return "Email is not valid.";
+        }
+        if (row.section() == null) {
+            return "Section is required.";
+        }
+        if (row.password() == null) {
+            return "Password is required.";
+        }
+        return null;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * One student of the upload; problem is set when the row itself could not be read.
+     */
+    private record Row(long line, String name, String email, String password, String section, String problem) {
+
+        static Row unreadable(long line, String problem) {
+            return new Row(line, null, null, null, null, problem);
+        }
+    }
+
+    private interface RowReader {
+
+        /** The next row, or null at the end of the upload. */
+        Row next() throws IOException;
+    }
+
+    private final class Progress {
+        private final List<ImportReport.ImportError> errors = new ArrayList<>();
+        private int rows;
+        private int imported;
+        private int failed;
+
+        void fail(Row row, String reason) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportReport.ImportError(row.line(), row.email(), reason));
+            }
+        }
+
+        ImportReport report() {
+            // Rows rejected by Mongo are found a batch after the ones that failed validation.
+            errors.sort(Comparator.comparingLong(ImportReport.ImportError::line));
+            return new ImportReport(rows, imported, failed, errors);
+        }
+    }
+
+    /**
+     * RFC 4180 records: fields separated by commas, optionally double-quoted, where a quoted field
+     * may contain commas, line breaks and doubled quotes. Columns are matched by header name.
+     */
+    private static final class CsvRows implements RowReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("The upload is empty.");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // Spreadsheet exports often start with a byte order mark.
+                columns.putIfAbsent(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("name", "email", "section", "password")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("The header row has no " + required + " column.");
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            while (true) {
+                long start = line + 1;
+                List<String> cells = readRecord();
+                if (cells == null) {
+                    return null;
+                }
+                if (cells.size() == 1 && cells.get(0).isBlank()) {
+                    continue;
+                }
+                return new Row(start, cell(cells, "name"), UserService.normalizeEmail(cell(cells, "email")),
+                        cell(cells, "password"), cell(cells, "section"), null);
+            }
+        }
+
+        private String cell(List<String> cells, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= cells.size() ? null : trimToNull(cells.get(index));
+        }
+
+        /**
+         * The next record's fields, or null at the end of the input.
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            line++;
+            List<String> cells = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (; c >= 0; c = reader.read()) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            cells.add(field.toString());
+            return cells;
+        }
+    }
+
+    /**
+     * One JSON object per line with name, email, section and password.
+     */
+    private static final class NdjsonRows implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        NdjsonRows(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    return Row.unreadable(line, "Not valid JSON.");
+                }
+                if (!node.isObject()) {
+                    return Row.unreadable(line, "Not a JSON object.");
+                }
+                return new Row(line, text(node, "name"), UserService.normalizeEmail(text(node, "email")),
+                        text(node, "password"), text(node, "section"), null);
+            }
+            return null;
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() || !value.isValueNode() ? null : trimToNull(value.asText());
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.attendance.attendance_system.service;
 
+import com.attendance.attendance_system.dto.KeysetPage;
+import com.attendance.attendance_system.dto.StudentPage;
+import com.attendance.attendance_system.dto.StudentSummary;
 import com.attendance.attendance_system.model.User;
 import com.attendance.attendance_system.repository.UserRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -13,12 +23,61 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * The form an email is stored and looked up in, so the unique email index treats addresses
+     * differing only in case or surrounding spaces as the same account.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public User registerUser(User user) {
+        user.setEmail(normalizeEmail(user.getEmail()));
         Optional<User> existing = userRepository.findByEmail(user.getEmail());
         if (existing.isPresent()) {
             throw new RuntimeException("User already exists");
         }
         return userRepository.save(user);
     }
+
+    /**
+     * One page of a section ordered by _id, starting after the given id (from the start when it
+     * is null). Keyset paging over the section_id index, so every page costs the same however
+     * deep it is.
+     */
+    public StudentPage pageSection(String section, String afterId, int size) {
+        int limit = KeysetPage.limit(size);
+        Query query = studentsQuery(section, afterId).limit(limit + 1);
+        return KeysetPage.of(mongoTemplate.find(query, StudentSummary.class, mongoTemplate.getCollectionName(User.class)),
+                limit, StudentSummary::id, StudentPage::new);
+    }
+
+    /**
+     * Every student (of one section, when given) straight off a Mongo cursor, ordered by section
+     * and _id. Close the stream when done.
+     */
+    public Stream<StudentSummary> streamStudents(String section) {
+        return mongoTemplate.stream(studentsQuery(section, null), StudentSummary.class, mongoTemplate.getCollectionName(User.class));
+    }
+
+    /**
+     * Projected to the StudentSummary fields and sorted to match the section_id index.
+     * afterId must be a valid ObjectId.
+     */
+    public static Query studentsQuery(String section, String afterId) {
+        Criteria criteria = new Criteria();
+        if (section != null) {
+            criteria = criteria.and("section").is(section);
+        }
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(afterId));
+        }
+        Query query = new Query(criteria).with(Sort.by("section", "_id"));
+        query.fields().include("name", "email", "section");
+        return query;
+    }
 }
 
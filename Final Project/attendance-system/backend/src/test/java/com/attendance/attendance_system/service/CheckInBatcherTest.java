@@ -0,0 +1,161 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CheckInBatcherTest {
+
+    private static final LocalDateTime JOIN_TIME = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private final BulkWriteResult result = mock(BulkWriteResult.class);
+    private final CheckInWriter checkInWriter = mock(CheckInWriter.class);
+    private final SessionCounters sessionCounters = mock(SessionCounters.class);
+    private final AttendanceSummaries attendanceSummaries = mock(AttendanceSummaries.class);
+    private final Session session = Session.builder().sessionToken("token-1").section("A").build();
+
+    private CheckInBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRecord.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(result);
+        // A long max delay keeps everything submitted before start() in one batch.
+        batcher = new CheckInBatcher(mongoTemplate, checkInWriter, sessionCounters, attendanceSummaries,
+                new SimpleMeterRegistry(), true, 256, 50, 16, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.stop();
+    }
+
+    @Test
+    void completesEveryCheckInWhenTheWholeBatchApplied() throws Exception {
+        when(result.getModifiedCount()).thenReturn(2);
+        CompletableFuture<Boolean> first = batcher.submit(session, "u1", JOIN_TIME);
+        CompletableFuture<Boolean> second = batcher.submit(session, "u2", JOIN_TIME);
+        batcher.start();
+
+        assertTrue(first.get(2, TimeUnit.SECONDS));
+        assertTrue(second.get(2, TimeUnit.SECONDS));
+        verify(bulkOps).execute();
+        verify(sessionCounters, timeout(1000)).countPresent(Map.of("token-1", 2));
+        verify(checkInWriter, never()).wasApplied(any(), any(), any());
+    }
+
+    @Test
+    void resolvesEachCheckInWhenOnlySomeApplied() throws Exception {
+        when(result.getModifiedCount()).thenReturn(1);
+        when(checkInWriter.wasApplied(session, "u1", JOIN_TIME)).thenReturn(true);
+        when(checkInWriter.wasApplied(session, "u2", JOIN_TIME)).thenReturn(false);
+        CompletableFuture<Boolean> first = batcher.submit(session, "u1", JOIN_TIME);
+        CompletableFuture<Boolean> second = batcher.submit(session, "u2", JOIN_TIME);
+        batcher.start();
+
+        assertTrue(first.get(2, TimeUnit.SECONDS));
+        assertFalse(second.get(2, TimeUnit.SECONDS));
+        verify(sessionCounters, timeout(1000)).countPresent(Map.of("token-1", 1));
+    }
+
+    @Test
+    void writesARepeatedScanOnceAndRejectsTheRepeat() throws Exception {
+        when(result.getModifiedCount()).thenReturn(1);
+        CompletableFuture<Boolean> first = batcher.submit(session, "u1", JOIN_TIME);
+        CompletableFuture<Boolean> repeat = batcher.submit(session, "u1", JOIN_TIME.plusSeconds(1));
+        batcher.start();
+
+        assertTrue(first.get(2, TimeUnit.SECONDS));
+        assertFalse(repeat.get(2, TimeUnit.SECONDS));
+        verify(checkInWriter, times(1)).addTo(eq(bulkOps), eq(session), eq("u1"), any());
+    }
+
+    @Test
+    void fallsBackToPerEntryChecksWhenTheBulkWriteFails() throws Exception {
+        when(bulkOps.execute()).thenThrow(new IllegalStateException("bulk write failed"));
+        when(checkInWriter.wasApplied(session, "u1", JOIN_TIME)).thenReturn(true);
+        IllegalStateException lookupFailure = new IllegalStateException("lookup failed");
+        when(checkInWriter.wasApplied(session, "u2", JOIN_TIME)).thenThrow(lookupFailure);
+        CompletableFuture<Boolean> first = batcher.submit(session, "u1", JOIN_TIME);
+        CompletableFuture<Boolean> second = batcher.submit(session, "u2", JOIN_TIME);
+        batcher.start();
+
+        assertTrue(first.get(2, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(2, TimeUnit.SECONDS));
+        assertEquals(lookupFailure, failure.getCause());
+        verify(sessionCounters, timeout(1000)).countPresent(Map.of("token-1", 1));
+    }
+
+    @Test
+    void failsTheBatchWhenItCannotBeResolved() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRecord.class))
+                .thenThrow(new OutOfMemoryError("simulated"));
+        CompletableFuture<Boolean> pending = batcher.submit(session, "u1", JOIN_TIME);
+        batcher.start();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> pending.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, failure.getCause());
+    }
+
+    @Test
+    void aFailedCountDoesNotFailTheCheckIns() throws Exception {
+        when(result.getModifiedCount()).thenReturn(1);
+        doThrow(new IllegalStateException("counter down")).when(sessionCounters).countPresent(anyMap());
+        CompletableFuture<Boolean> pending = batcher.submit(session, "u1", JOIN_TIME);
+        batcher.start();
+
+        assertTrue(pending.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void writesWhatIsQueuedOnStopAndRejectsLaterCheckIns() throws Exception {
+        when(result.getModifiedCount()).thenReturn(1);
+        batcher.start();
+        CompletableFuture<Boolean> pending = batcher.submit(session, "u1", JOIN_TIME);
+        batcher.stop();
+
+        assertTrue(pending.get(2, TimeUnit.SECONDS));
+        verify(attendanceSummaries).countAttended(anyList());
+        assertThrows(RejectedExecutionException.class, () -> batcher.submit(session, "u2", JOIN_TIME));
+    }
+
+    @Test
+    void rejectsACheckInWhenTheQueueStaysFull() {
+        for (int i = 0; i < 16; i++) {
+            batcher.submit(session, "u" + i, JOIN_TIME);
+        }
+        assertThrows(RejectedExecutionException.class, () -> batcher.submit(session, "late", JOIN_TIME));
+    }
+}
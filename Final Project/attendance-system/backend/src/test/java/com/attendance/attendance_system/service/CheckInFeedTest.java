@@ -0,0 +1,65 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class CheckInFeedTest {
+
+    private static final String TOKEN = "3f1c2a9e-6b7d-4e0a-9c55-1d2e3f4a5b6c";
+    private static final LocalDateTime JOIN_TIME = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private final CheckInFeed feed = new CheckInFeed(new ObjectMapper().registerModule(new JavaTimeModule()),
+            new SimpleMeterRegistry(), 10, 60, 16, 100, 1);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        feed.shutdown();
+    }
+
+    @Test
+    void replaysWhatWasPublishedWhileTheSessionIsOpen() throws Exception {
+        feed.publish(session(10), "u1", JOIN_TIME);
+
+        CheckInFeed.Viewer viewer = mock(CheckInFeed.Viewer.class);
+        feed.subscribe(session(10), null, viewer);
+
+        verify(viewer, timeout(2000)).checkIn(anyString(), contains("\"u1\""));
+        verify(viewer, never()).closed();
+    }
+
+    @Test
+    void doesNotBringBackTheFeedOfAClosedSession() throws Exception {
+        feed.publish(session(10), "u1", JOIN_TIME);
+        feed.close(TOKEN);
+        // A replayed or late check-in arriving after the session expired.
+        feed.publish(session(-1), "u2", JOIN_TIME);
+
+        CheckInFeed.Viewer viewer = mock(CheckInFeed.Viewer.class);
+        feed.subscribe(session(-1), null, viewer);
+
+        verify(viewer, timeout(2000)).closed();
+        verify(viewer, after(100).never()).checkIn(anyString(), anyString());
+    }
+
+    private static Session session(int expiresInMinutes) {
+        return Session.builder()
+                .sessionToken(TOKEN)
+                .active(true)
+                .expiresAt(LocalDateTime.now().plusMinutes(expiresInMinutes))
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.AttendanceRecord;
+import com.attendance.attendance_system.model.Session;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays a real journal against a mocked Mongo, as after a crash between the write and the
+ * checkpoint.
+ */
+class CheckInJournalReplayerTest {
+
+    private static final String TOKEN = "3f1c2a9e-6b7d-4e0a-9c55-1d2e3f4a5b6c";
+    private static final LocalDateTime JOIN_TIME = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    @TempDir
+    Path directory;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private final BulkWriteResult result = mock(BulkWriteResult.class);
+    private final CheckInWriter checkInWriter = mock(CheckInWriter.class);
+    private final SessionCounters sessionCounters = mock(SessionCounters.class);
+    private final AttendanceSummaries attendanceSummaries = mock(AttendanceSummaries.class);
+    private final SessionTokenCache sessionTokenCache = mock(SessionTokenCache.class);
+    private final CheckInLedger checkInLedger = mock(CheckInLedger.class);
+    private final CheckInFeed checkInFeed = mock(CheckInFeed.class);
+    private final AttendanceEventLog attendanceEventLog = mock(AttendanceEventLog.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Session session = Session.builder().sessionToken(TOKEN).section("A").build();
+
+    private CheckInJournal journal;
+    private CheckInJournal.Position end;
+    private CheckInJournalReplayer replayer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRecord.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(result);
+        when(sessionTokenCache.get(TOKEN)).thenReturn(Optional.of(session));
+        journal = new CheckInJournal(true, directory.toString(), 1 << 16);
+        journal.open();
+        journal.append("u1", TOKEN, JOIN_TIME);
+        journal.append("u2", TOKEN, JOIN_TIME);
+        end = journal.read(journal.readCheckpoint(), 2).get(1).next();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (replayer != null) {
+            replayer.stop();
+        }
+        journal.close();
+    }
+
+    @Test
+    void countsAndPublishesEntriesItApplies() throws Exception {
+        when(result.getModifiedCount()).thenReturn(2);
+        start();
+
+        verify(sessionCounters, timeout(2000)).countPresent(Map.of(TOKEN, 2));
+        verify(checkInFeed, timeout(2000)).publish(session, "u1", JOIN_TIME);
+        verify(checkInFeed, timeout(2000)).publish(session, "u2", JOIN_TIME);
+        awaitCheckpoint();
+    }
+
+    @Test
+    void replayingAfterACrashBeforeTheCheckpointCountsNothingTwice() throws Exception {
+        // The previous run wrote both check-ins, then stopped before its checkpoint.
+        when(result.getModifiedCount()).thenReturn(0);
+        when(checkInWriter.wasApplied(session, "u1", JOIN_TIME)).thenReturn(true);
+        when(checkInWriter.wasApplied(session, "u2", JOIN_TIME)).thenReturn(true);
+        start();
+
+        verify(sessionCounters, timeout(2000)).reconcile(TOKEN);
+        verify(sessionCounters, never()).countPresent(anyMap());
+        verify(attendanceSummaries, never()).countAttended(anyList());
+        verify(checkInLedger, never()).forget(anyString(), anyString());
+        awaitCheckpoint();
+        assertEquals(0, dropped());
+    }
+
+    @Test
+    void dropsAnEntryThatCannotBeAppliedAndForgetsIt() throws Exception {
+        when(result.getModifiedCount()).thenReturn(1);
+        when(checkInWriter.wasApplied(session, "u1", JOIN_TIME)).thenReturn(true);
+        when(checkInWriter.wasApplied(session, "u2", JOIN_TIME)).thenReturn(false);
+        when(checkInWriter.isPresent(session, "u2")).thenReturn(false);
+        start();
+
+        verify(checkInLedger, timeout(2000)).forget(TOKEN, "u2");
+        verify(checkInFeed).publish(session, "u1", JOIN_TIME);
+        verify(checkInFeed, never()).publish(session, "u2", JOIN_TIME);
+        verify(sessionCounters, timeout(2000)).reconcile(TOKEN);
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    void leavesARepeatOfAnEarlierCheckInAlone() throws Exception {
+        when(result.getModifiedCount()).thenReturn(1);
+        when(checkInWriter.wasApplied(session, "u1", JOIN_TIME)).thenReturn(true);
+        when(checkInWriter.wasApplied(session, "u2", JOIN_TIME)).thenReturn(false);
+        when(checkInWriter.isPresent(session, "u2")).thenReturn(true);
+        start();
+
+        verify(sessionCounters, timeout(2000)).reconcile(TOKEN);
+        verify(checkInLedger, never()).forget(anyString(), anyString());
+        assertEquals(0, dropped());
+    }
+
+    @Test
+    void retriesTheBatchWhileMongoIsDown() throws Exception {
+        when(bulkOps.execute()).thenThrow(new IllegalStateException("Mongo down")).thenReturn(result);
+        when(result.getModifiedCount()).thenReturn(2);
+        start();
+
+        verify(sessionCounters, timeout(2000)).countPresent(Map.of(TOKEN, 2));
+        verify(checkInFeed, after(200).times(1)).publish(session, "u1", JOIN_TIME);
+        awaitCheckpoint();
+    }
+
+    @Test
+    void dropsEntriesForAnUnknownSession() throws Exception {
+        when(sessionTokenCache.get(TOKEN)).thenReturn(Optional.empty());
+        start();
+
+        awaitCheckpoint();
+        verify(bulkOps, never()).execute();
+        verify(checkInFeed, never()).publish(any(), any(), any());
+        assertEquals(2, dropped());
+    }
+
+    private void start() throws IOException {
+        replayer = new CheckInJournalReplayer(journal, checkInWriter, sessionCounters, attendanceSummaries,
+                sessionTokenCache, checkInLedger, checkInFeed, attendanceEventLog, mongoTemplate, meterRegistry, 500, 5);
+        replayer.start();
+    }
+
+    private void awaitCheckpoint() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!journal.readCheckpoint().equals(end) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(end, journal.readCheckpoint());
+    }
+
+    private double dropped() {
+        return meterRegistry.get("attendance.journal.dropped").counter().count();
+    }
+}
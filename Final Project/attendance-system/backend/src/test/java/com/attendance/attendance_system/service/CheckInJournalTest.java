@@ -0,0 +1,160 @@
+package com.attendance.attendance_system.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CheckInJournalTest {
+
+    private static final String TOKEN = "3f1c2a9e-6b7d-4e0a-9c55-1d2e3f4a5b6c";
+    private static final LocalDateTime JOIN_TIME = LocalDateTime.of(2026, 3, 2, 9, 0, 0, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    private final List<CheckInJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (CheckInJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void readsAppendedEntriesBackInOrder() throws IOException {
+        CheckInJournal journal = open(1 << 16);
+        for (int i = 0; i < 3; i++) {
+            journal.append("u" + i, TOKEN, JOIN_TIME.plusSeconds(i));
+        }
+
+        List<CheckInJournal.Entry> entries = journal.read(journal.readCheckpoint(), 10);
+
+        assertEquals(List.of("u0", "u1", "u2"), userIds(entries));
+        assertEquals(TOKEN, entries.get(2).token());
+        assertEquals(JOIN_TIME.plusSeconds(2), entries.get(2).joinTime());
+        assertEquals(List.of(), journal.read(entries.get(2).next(), 10));
+    }
+
+    @Test
+    void rollsToANewSegmentWhenTheCurrentOneIsFull() throws IOException {
+        // Room for two entries and the end marker per segment.
+        CheckInJournal journal = open(128);
+        for (int i = 0; i < 5; i++) {
+            journal.append("u" + i, TOKEN, JOIN_TIME);
+        }
+
+        assertEquals(3, segmentFiles().size());
+        List<CheckInJournal.Entry> entries = journal.read(journal.readCheckpoint(), 10);
+        assertEquals(List.of("u0", "u1", "u2", "u3", "u4"), userIds(entries));
+        assertEquals(2, entries.get(4).next().segmentId());
+
+        // A small max stops mid-segment and picks up from there.
+        List<CheckInJournal.Entry> firstThree = journal.read(journal.readCheckpoint(), 3);
+        assertEquals(List.of("u0", "u1", "u2"), userIds(firstThree));
+        assertEquals(List.of("u3", "u4"), userIds(journal.read(firstThree.get(2).next(), 10)));
+    }
+
+    @Test
+    void replaysFromTheCheckpointAfterACrash() throws IOException {
+        CheckInJournal before = open(128);
+        for (int i = 0; i < 5; i++) {
+            before.append("u" + i, TOKEN, JOIN_TIME);
+        }
+        List<CheckInJournal.Entry> applied = before.read(before.readCheckpoint(), 3);
+        before.checkpoint(applied.get(2).next());
+        // Crash: no close(). Every append was forced, so nothing acknowledged is lost.
+
+        CheckInJournal after = open(128);
+        CheckInJournal.Position checkpoint = after.readCheckpoint();
+        assertEquals(applied.get(2).next(), checkpoint);
+        assertEquals(List.of("u3", "u4"), userIds(after.read(checkpoint, 10)));
+        // The segment wholly behind the checkpoint is gone.
+        assertEquals(List.of(1L, 2L, 3L), segmentIds());
+    }
+
+    @Test
+    void replaysTheSameEntriesAgainIfTheCrashCameBeforeTheCheckpoint() throws IOException {
+        CheckInJournal before = open(1 << 16);
+        before.append("u0", TOKEN, JOIN_TIME);
+        before.append("u1", TOKEN, JOIN_TIME);
+        List<CheckInJournal.Entry> firstRun = before.read(before.readCheckpoint(), 10);
+
+        CheckInJournal after = open(1 << 16);
+        List<CheckInJournal.Entry> secondRun = after.read(after.readCheckpoint(), 10);
+
+        assertEquals(firstRun, secondRun);
+        after.checkpoint(secondRun.get(1).next());
+        assertEquals(List.of(), open(1 << 16).read(secondRun.get(1).next(), 10));
+    }
+
+    @Test
+    void stopsAtATornEntry() throws IOException {
+        CheckInJournal before = open(1 << 16);
+        for (int i = 0; i < 3; i++) {
+            before.append("u" + i, TOKEN, JOIN_TIME);
+        }
+        List<CheckInJournal.Entry> entries = before.read(before.readCheckpoint(), 10);
+        int lastEntry = entries.get(1).next().offset();
+        corrupt(segmentFiles().get(0), lastEntry + Integer.BYTES);
+
+        CheckInJournal after = open(1 << 16);
+        assertEquals(List.of("u0", "u1"), userIds(after.read(after.readCheckpoint(), 10)));
+    }
+
+    @Test
+    void appendsAfterARestartGoToAFreshSegment() throws IOException {
+        CheckInJournal before = open(1 << 16);
+        before.append("u0", TOKEN, JOIN_TIME);
+
+        CheckInJournal after = open(1 << 16);
+        after.append("u1", TOKEN, JOIN_TIME);
+
+        assertEquals(List.of(0L, 1L), segmentIds());
+        assertEquals(List.of("u0", "u1"), userIds(after.read(after.readCheckpoint(), 10)));
+    }
+
+    private CheckInJournal open(int segmentSize) throws IOException {
+        CheckInJournal journal = new CheckInJournal(true, directory.toString(), segmentSize);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private List<Long> segmentIds() throws IOException {
+        return segmentFiles().stream()
+                .map(path -> Long.parseLong(path.getFileName().toString().replace(".journal", "")))
+                .toList();
+    }
+
+    private static void corrupt(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer original = ByteBuffer.allocate(1);
+            channel.read(original, offset);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~original.get(0)}), offset);
+        }
+    }
+
+    private static List<String> userIds(List<CheckInJournal.Entry> entries) {
+        return entries.stream().map(CheckInJournal.Entry::userId).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_SECRET = Base64.getEncoder()
+            .encodeToString("another 32 byte secret for tests".getBytes(StandardCharsets.UTF_8));
+    private static final String TOKEN = "3f1c2a9e-6b7d-4e0a-9c55-1d2e3f4a5b6c";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CheckInRejections rejections = new CheckInRejections(meterRegistry);
+
+    @Test
+    void resolvesTheValueItIssued() throws GeneralSecurityException {
+        QrTokenService service = service(SECRET, true);
+
+        QrTokenService.Scan scan = service.resolve(service.issue(session(10)).qrToken());
+
+        assertFalse(scan.isRejected());
+        assertEquals(TOKEN, scan.sessionToken());
+        assertEquals("A", scan.section());
+        assertTrue(scan.matches(session(10)));
+        assertFalse(scan.matches(Session.builder().sessionToken(TOKEN).section("B").build()));
+    }
+
+    @Test
+    void rejectsAValueSignedWithAnotherKey() throws GeneralSecurityException {
+        String forged = service(OTHER_SECRET, true).issue(session(10)).qrToken();
+
+        assertRejected(service(SECRET, true).resolve(forged), HttpStatus.NOT_FOUND, "forged");
+    }
+
+    @Test
+    void rejectsATamperedPayload() throws GeneralSecurityException {
+        QrTokenService service = service(SECRET, true);
+        String issued = service.issue(session(10)).qrToken();
+        int dot = issued.lastIndexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(issued.substring(3, dot)), StandardCharsets.UTF_8);
+        String otherSection = payload.replace("\nA\n", "\nB\n");
+        String tampered = "v1." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(otherSection.getBytes(StandardCharsets.UTF_8)) + issued.substring(dot);
+
+        assertRejected(service.resolve(tampered), HttpStatus.NOT_FOUND, "forged");
+    }
+
+    @Test
+    void rejectsATamperedSignature() throws GeneralSecurityException {
+        QrTokenService service = service(SECRET, true);
+        String issued = service.issue(session(10)).qrToken();
+        int mac = issued.lastIndexOf('.') + 1;
+        String tampered = issued.substring(0, mac) + (issued.charAt(mac) == 'A' ? 'B' : 'A') + issued.substring(mac + 1);
+
+        assertRejected(service.resolve(tampered), HttpStatus.NOT_FOUND, "forged");
+    }
+
+    @Test
+    void rejectsAValueOnceItsSessionHasExpired() throws GeneralSecurityException {
+        QrTokenService service = service(SECRET, true);
+        // notAfter is capped at the session's expiry.
+        String issued = service.issue(session(-1)).qrToken();
+
+        assertRejected(service.resolve(issued), HttpStatus.FORBIDDEN, "stale_qr");
+    }
+
+    @Test
+    void rejectsMalformedValuesWithoutCheckingTheSignature() throws GeneralSecurityException {
+        QrTokenService service = service(SECRET, true);
+
+        assertRejected(service.resolve(null), HttpStatus.NOT_FOUND, "malformed");
+        assertRejected(service.resolve("v1." + "x".repeat(600)), HttpStatus.NOT_FOUND, "malformed");
+        assertRejected(service.resolve("v1.no-signature"), HttpStatus.NOT_FOUND, "malformed");
+        assertRejected(service.resolve("v1.***.***"), HttpStatus.NOT_FOUND, "malformed");
+        assertRejected(service.resolve("not-a-token"), HttpStatus.NOT_FOUND, "malformed");
+        assertEquals(0, rejected("forged"));
+    }
+
+    @Test
+    void acceptsABareTokenOnlyWhenSigningIsOptional() throws GeneralSecurityException {
+        assertRejected(service(SECRET, true).resolve(TOKEN), HttpStatus.FORBIDDEN, "unsigned");
+
+        QrTokenService.Scan scan = service(SECRET, false).resolve(TOKEN);
+        assertFalse(scan.isRejected());
+        assertEquals(TOKEN, scan.sessionToken());
+        assertNull(scan.section());
+    }
+
+    @Test
+    void refusesAnInvalidRotation() {
+        assertThrows(IllegalArgumentException.class, () -> new QrTokenService(rejections, SECRET, 0, 1, true));
+        assertThrows(IllegalArgumentException.class, () -> new QrTokenService(rejections, SECRET, 30, -1, true));
+    }
+
+    private QrTokenService service(String secret, boolean requireSigned) throws GeneralSecurityException {
+        return new QrTokenService(rejections, secret, 30, 1, requireSigned);
+    }
+
+    private static Session session(int expiresInMinutes) {
+        return Session.builder()
+                .sessionToken(TOKEN)
+                .section("A")
+                .expiresAt(LocalDateTime.now().plusMinutes(expiresInMinutes))
+                .build();
+    }
+
+    private void assertRejected(QrTokenService.Scan scan, HttpStatus status, String reason) {
+        assertTrue(scan.isRejected());
+        assertEquals(status, scan.rejection().status());
+        assertTrue(rejected(reason) > 0, "no " + reason + " rejection counted");
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("attendance.checkin.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,124 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the wheel with explicit clock readings; the scheduler's own start time lies between
+ * start and the first tick, so every reading below falls well inside the intended tick.
+ */
+class SessionExpirySchedulerTest {
+
+    private static final long TICK = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ActiveSessionRegistry activeSessionRegistry = mock(ActiveSessionRegistry.class);
+    private final SessionTokenCache sessionTokenCache = mock(SessionTokenCache.class);
+    private final CheckInLedger checkInLedger = mock(CheckInLedger.class);
+    private final CheckInFeed checkInFeed = mock(CheckInFeed.class);
+    private final SessionCounters sessionCounters = mock(SessionCounters.class);
+
+    private long start;
+    private SessionExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        start = System.currentTimeMillis();
+        scheduler = new SessionExpiryScheduler(mongoTemplate, mock(SessionRepository.class), activeSessionRegistry,
+                sessionTokenCache, checkInLedger, mock(CheckInWriter.class), checkInFeed, sessionCounters, TICK);
+    }
+
+    @Test
+    void closesASessionAtItsTickAndNotBefore() {
+        scheduler.schedule("t1", start + 5 * TICK);
+
+        scheduler.advance(start + 4 * TICK + TICK / 2);
+        verify(activeSessionRegistry, never()).remove("t1");
+
+        scheduler.advance(start + 5 * TICK + TICK / 2);
+        verifyClosed("t1");
+    }
+
+    @Test
+    void closesSessionsDueInTheSameTickWithOneUpdate() {
+        scheduler.schedule("t1", start + 3 * TICK);
+        scheduler.schedule("t2", start + 3 * TICK);
+
+        scheduler.advance(start + 3 * TICK + TICK / 2);
+
+        verifyClosed("t1");
+        verifyClosed("t2");
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Session.class));
+    }
+
+    @Test
+    void keepsASessionDueOnALaterLapInItsSlot() {
+        // Lands in slot 3, but only on the wheel's second lap.
+        long deadline = start + (WHEEL_SIZE + 3) * TICK;
+        scheduler.schedule("t1", deadline);
+
+        scheduler.advance(start + 3 * TICK + TICK / 2);
+        verify(activeSessionRegistry, never()).remove("t1");
+
+        scheduler.advance(deadline - TICK / 2);
+        verify(activeSessionRegistry, never()).remove("t1");
+
+        scheduler.advance(deadline + TICK / 2);
+        verifyClosed("t1");
+    }
+
+    @Test
+    void catchesUpOnMissedTicks() {
+        scheduler.schedule("t1", start + 2 * TICK);
+        scheduler.schedule("t2", start + 7 * TICK);
+
+        scheduler.advance(start + 10 * TICK + TICK / 2);
+
+        verifyClosed("t1");
+        verifyClosed("t2");
+    }
+
+    @Test
+    void schedulesAnAlreadyDueSessionForTheNextTick() {
+        scheduler.advance(start + 10 * TICK + TICK / 2);
+
+        // Its own tick has been passed; it must not wait a whole lap.
+        scheduler.schedule("t1", start + 2 * TICK);
+        scheduler.advance(start + 11 * TICK + TICK / 2);
+
+        verifyClosed("t1");
+    }
+
+    @Test
+    void closesOverdueSessionsThroughTheSamePath() {
+        when(mongoTemplate.find(any(Query.class), eq(Session.class)))
+                .thenReturn(List.of(Session.builder().sessionToken("t1").build()));
+
+        scheduler.closeOverdue();
+
+        verifyClosed("t1");
+    }
+
+    private void verifyClosed(String token) {
+        verify(activeSessionRegistry).remove(token);
+        verify(sessionTokenCache).evict(token);
+        verify(checkInLedger).close(token);
+        verify(checkInFeed).close(token);
+        verify(sessionCounters).reconcile(token);
+    }
+}
@@ -0,0 +1,100 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.model.Session;
+import com.attendance.attendance_system.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionTokenCacheTest {
+
+    private static final String TOKEN = "3f1c2a9e-6b7d-4e0a-9c55-1d2e3f4a5b6c";
+
+    private final SessionRepository sessionRepository = mock(SessionRepository.class);
+    private final SessionTokenCache cache = new SessionTokenCache(sessionRepository, new SimpleMeterRegistry(),
+            100, 100, 60);
+
+    @Test
+    void acceptsOnlyUuidShapedTokens() {
+        assertTrue(SessionTokenCache.isWellFormed(TOKEN));
+        assertTrue(SessionTokenCache.isWellFormed(TOKEN.toUpperCase()));
+
+        assertFalse(SessionTokenCache.isWellFormed(null));
+        assertFalse(SessionTokenCache.isWellFormed(""));
+        assertFalse(SessionTokenCache.isWellFormed(TOKEN.substring(1)));
+        assertFalse(SessionTokenCache.isWellFormed(TOKEN + "0"));
+        assertFalse(SessionTokenCache.isWellFormed(TOKEN.replace('-', '0')));
+        assertFalse(SessionTokenCache.isWellFormed(TOKEN.replace('a', 'g')));
+        assertFalse(SessionTokenCache.isWellFormed("3f1c2a9e6-b7d-4e0a-9c55-1d2e3f4a5b6c"));
+    }
+
+    @Test
+    void answersAMalformedTokenWithoutAQuery() {
+        assertTrue(cache.isKnownMissing("' OR 1=1 --"));
+        assertEquals(Optional.empty(), cache.get("' OR 1=1 --"));
+
+        verify(sessionRepository, never()).findBySessionToken(anyString());
+    }
+
+    @Test
+    void remembersATokenMongoDidNotKnow() {
+        when(sessionRepository.findBySessionToken(TOKEN)).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), cache.get(TOKEN));
+        assertEquals(Optional.empty(), cache.get(TOKEN));
+
+        assertTrue(cache.isKnownMissing(TOKEN));
+        verify(sessionRepository, times(1)).findBySessionToken(TOKEN);
+    }
+
+    @Test
+    void forgetsTheMissingMarkWhenTheSessionIsCreated() {
+        cache.markMissing(TOKEN);
+        Session session = session(LocalDateTime.now().plusMinutes(10));
+
+        cache.put(session);
+
+        assertFalse(cache.isKnownMissing(TOKEN));
+        assertEquals(Optional.of(session), cache.get(TOKEN));
+        verify(sessionRepository, never()).findBySessionToken(anyString());
+    }
+
+    @Test
+    void loadsALiveSessionOnce() {
+        Session session = session(LocalDateTime.now().plusMinutes(10));
+        when(sessionRepository.findBySessionToken(TOKEN)).thenReturn(Optional.of(session));
+
+        assertEquals(Optional.of(session), cache.get(TOKEN));
+        assertEquals(Optional.of(session), cache.get(TOKEN));
+        assertEquals(Optional.of(session), cache.getCached(TOKEN));
+
+        verify(sessionRepository, times(1)).findBySessionToken(TOKEN);
+    }
+
+    @Test
+    void doesNotCacheAnExpiredSession() {
+        Session session = session(LocalDateTime.now().minusMinutes(1));
+        when(sessionRepository.findBySessionToken(TOKEN)).thenReturn(Optional.of(session));
+
+        assertEquals(Optional.of(session), cache.get(TOKEN));
+
+        assertEquals(Optional.empty(), cache.getCached(TOKEN));
+        assertFalse(cache.isKnownMissing(TOKEN));
+    }
+
+    private static Session session(LocalDateTime expiresAt) {
+        return Session.builder().sessionToken(TOKEN).section("A").expiresAt(expiresAt).build();
+    }
+}
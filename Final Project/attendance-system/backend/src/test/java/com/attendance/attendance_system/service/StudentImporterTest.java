@@ -0,0 +1,190 @@
+package com.attendance.attendance_system.service;
+
+import com.attendance.attendance_system.dto.ImportReport;
+import com.attendance.attendance_system.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentImporterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private final AttendanceEventLog attendanceEventLog = mock(AttendanceEventLog.class);
+    private final List<User> inserted = new ArrayList<>();
+
+    private StudentImporter importer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(0, List.class));
+            return bulkOps;
+        });
+        importer = new StudentImporter(mongoTemplate, new ObjectMapper(), attendanceEventLog, 500, 1000);
+    }
+
+    @Test
+    void readsQuotedFieldsEmbeddedLineBreaksAndCrlf() throws IOException {
+        String csv = "\uFEFFName,Email,Section,Password\r\n"
+                + "\"Doe, Jane\",JANE@Example.com ,A,p1\r\n"
+                + "\"Says \"\"hi\"\"\",quote@example.com,B,p2\r\n"
+                + "\"Two\nLines\",multi@example.com,A,p3\r\n"
+                + "\r\n"
+                + "Last,last@example.com,C,p4";
+
+        ImportReport report = importCsv(csv);
+
+        assertEquals(new ImportReport(4, 4, 0, List.of()), report);
+        assertEquals(List.of("Doe, Jane", "Says \"hi\"", "Two\nLines", "Last"),
+                inserted.stream().map(User::getName).toList());
+        assertEquals(List.of("jane@example.com", "quote@example.com", "multi@example.com", "last@example.com"),
+                inserted.stream().map(User::getEmail).toList());
+        assertEquals(List.of("A", "B", "A", "C"), inserted.stream().map(User::getSection).toList());
+        verify(attendanceEventLog, times(4)).sectionAssigned(any(), isNull(), any());
+    }
+
+    @Test
+    void reportsTheLineARowStartsOnAfterAnEmbeddedLineBreak() throws IOException {
+        String csv = "name,email,section,password\n"
+                + "\"Two\nLines\",multi@example.com,A,p1\n"
+                + ",missing-name@example.com,A,p2\n";
+
+        ImportReport report = importCsv(csv);
+
+        assertEquals(List.of(new ImportReport.ImportError(4, "missing-name@example.com", "Name is required.")),
+                report.errors());
+    }
+
+    @Test
+    void matchesColumnsByHeaderName() throws IOException {
+        ImportReport report = importCsv("password,section,email,name\np1,A,a@example.com,Ann\n");
+
+        assertEquals(1, report.imported());
+        assertEquals("Ann", inserted.get(0).getName());
+        assertEquals("A", inserted.get(0).getSection());
+        assertEquals("p1", inserted.get(0).getPassword());
+    }
+
+    @Test
+    void rejectsAnEmptyUploadOrAMissingColumn() {
+        IllegalArgumentException empty = assertThrows(IllegalArgumentException.class, () -> importCsv(""));
+        assertEquals("The upload is empty.", empty.getMessage());
+
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> importCsv("name,email,password\nAnn,a@example.com,p1\n"));
+        assertEquals("The header row has no section column.", missing.getMessage());
+
+        IllegalArgumentException noPassword = assertThrows(IllegalArgumentException.class,
+                () -> importCsv("name,email,section\nAnn,a@example.com,A\n"));
+        assertEquals("The header row has no password column.", noPassword.getMessage());
+    }
+
+    @Test
+    void mapsEveryRejectedRowToItsLineAndReason() throws IOException {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user("taken@example.com")));
+        // Of the three rows sent to Mongo, the first repeats an earlier one and the last breaks a rule.
+        when(bulkOps.execute()).thenThrow(bulkFailure(
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(121, "Document failed validation", new BsonDocument(), 2)));
+        String csv = "name,email,section,password\n"
+                + "Dup,dup@example.com,A,p1\n"
+                + "Taken,taken@example.com,A,p2\n"
+                + ",noname@example.com,A,p3\n"
+                + "Bad,not-an-email,A,p4\n"
+                + "NoSection,nosection@example.com,,p5\n"
+                + "NoPassword,nopassword@example.com,A\n"
+                + "Ok,ok@example.com,A,p6\n"
+                + "Invalid,invalid@example.com,A,p7\n";
+
+        ImportReport report = importCsv(csv);
+
+        assertEquals(List.of(
+                new ImportReport.ImportError(2, "dup@example.com", "Email already in use."),
+                new ImportReport.ImportError(3, "taken@example.com", "Email already in use."),
+                new ImportReport.ImportError(4, "noname@example.com", "Name is required."),
+                new ImportReport.ImportError(5, "not-an-email", "Email is not valid."),
+                new ImportReport.ImportError(6, "nosection@example.com", "Section is required."),
+                new ImportReport.ImportError(7, "nopassword@example.com", "Password is required."),
+                new ImportReport.ImportError(9, "invalid@example.com", "Document failed validation")),
+                report.errors());
+        assertEquals(8, report.rows());
+        assertEquals(1, report.imported());
+        assertEquals(7, report.failed());
+        verify(attendanceEventLog, times(1)).sectionAssigned(any(), isNull(), eq("A"));
+    }
+
+    @Test
+    void countsEveryFailureButReportsAtMostTheLimit() throws IOException {
+        importer = new StudentImporter(mongoTemplate, new ObjectMapper(), attendanceEventLog, 500, 2);
+        String csv = "name,email,section,password\n" + ",a@example.com,A,p\n".repeat(5);
+
+        ImportReport report = importCsv(csv);
+
+        assertEquals(5, report.failed());
+        assertEquals(2, report.errors().size());
+    }
+
+    @Test
+    void reportsUnreadableNdjsonLines() throws IOException {
+        String ndjson = "{\"name\":\"Ann\",\"email\":\"a@example.com\",\"section\":\"A\",\"password\":\"p\"}\n"
+                + "\n"
+                + "{not json\n"
+                + "[1,2]\n";
+
+        ImportReport report = importer.importStudents(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), StudentImporter.Format.NDJSON);
+
+        assertEquals(List.of(
+                new ImportReport.ImportError(3, null, "Not valid JSON."),
+                new ImportReport.ImportError(4, null, "Not a JSON object.")),
+                report.errors());
+        assertEquals(1, report.imported());
+    }
+
+    private ImportReport importCsv(String csv) throws IOException {
+        return importer.importStudents(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                StudentImporter.Format.CSV);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        return user;
+    }
+
+    private static BulkOperationException bulkFailure(BulkWriteError... errors) {
+        MongoBulkWriteException cause = new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(errors),
+                null, new ServerAddress(), Set.of());
+        return new BulkOperationException("Bulk write failed", cause);
+    }
+}
@@ -4,28 +4,31 @@ export default function LogsTab() {
   const [logs, setLogs] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [next, setNext] = useState(null);
 
-  const API_URL = "https:/localhost:8080/api/logs"; // set API
+  const API_URL = "http://localhost:8080/api/logs";
 
-  useEffect(() => {
-    const fetchLogs = async () => {
-      try {
-        setLoading(true);
-        const response = await fetch(API_URL);
-        if (!response.ok) throw new Error("Failed to fetch logs");
-        const data = await response.json();
-        setLogs(data);
-      } catch (err) {
-        setError(err.message);
-      } finally {
-        setLoading(false);
-      }
-    };
+  // Newest first; "before" continues from the last page's cursor.
+  const fetchLogs = async (before) => {
+    try {
+      setLoading(true);
+      const response = await fetch(before ? `${API_URL}?before=${before}` : API_URL);
+      if (!response.ok) throw new Error("Failed to fetch logs");
+      const data = await response.json();
+      setLogs((prev) => (before ? [...prev, ...data.entries] : data.entries));
+      setNext(data.next);
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setLoading(false);
+    }
+  };
 
-    fetchLogs();
+  useEffect(() => {
+    fetchLogs(null);
   }, []);
 
-  if (loading) return <p>Loading logs...</p>;
+  if (loading && logs.length === 0) return <p>Loading logs...</p>;
   if (error) return <p className="text-red-500">Error: {error}</p>;
 
   return (
@@ -35,9 +38,9 @@ export default function LogsTab() {
         <p className="text-gray-500">No logs available.</p>
       ) : (
         <ul className="space-y-2">
-          {logs.map((log, i) => (
+          {logs.map((log) => (
             <li
-              key={i}
+              key={log.id}
               className="bg-white p-3 shadow rounded flex justify-between items-center"
             >
               <span className="font-medium">{log.user}</span>
@@ -47,6 +50,15 @@ export default function LogsTab() {
           ))}
         </ul>
       )}
+      {next && (
+        <button
+          onClick={() => fetchLogs(next)}
+          disabled={loading}
+          className="mt-4 px-4 py-2 bg-gray-200 rounded hover:bg-gray-300"
+        >
+          {loading ? "Loading..." : "Load older"}
+        </button>
+      )}
     </div>
   );
 }
@@ -274,6 +274,54 @@ export default function SessionTab() {
         return () => clearInterval(interval);
     }, []);
 
+    // The QR value is signed and rotates; keep the open modal showing the current one.
+    useEffect(() => {
+        if (!showQRModal || !generatedSession || generatedSession.timeLeft <= 0) return;
+        const sessionId = generatedSession.id;
+        let timer;
+        let cancelled = false;
+
+        const refreshQr = async () => {
+            try {
+                const current = await fetchWithRetry(`${API_BASE_URL}/sessions/${sessionId}/qr-token`, {
+                    method: "GET",
+                    headers: {
+                        "X-User-Id": ADMIN_USER_ID,
+                    },
+                });
+                if (cancelled) return;
+                setGeneratedSession((prev) => (prev && prev.id === sessionId ? { ...prev, qrValue: current.qrToken } : prev));
+                timer = setTimeout(refreshQr, Math.max(1, current.refreshInSeconds) * 1000);
+            } catch (err) {
+                // 404 once the session has closed; stop refreshing.
+                console.error("Failed to refresh QR code:", err);
+            }
+        };
+
+        refreshQr();
+        return () => {
+            cancelled = true;
+            clearTimeout(timer);
+        };
+    }, [showQRModal, generatedSession?.id]);
+
+    // Live check-ins while the modal is open; EventSource reconnects with Last-Event-ID by itself.
+    useEffect(() => {
+        if (!showQRModal || !generatedSession || generatedSession.timeLeft <= 0) return;
+        const sessionId = generatedSession.id;
+        const source = new EventSource(`${API_BASE_URL}/sessions/${sessionId}/check-ins`);
+
+        source.addEventListener("check-in", (event) => {
+            const record = JSON.parse(event.data);
+            setCheckInRecords((prev) => (prev.some((r) => r.userId === record.userId) ? prev : [...prev, record]));
+        });
+        // Too much was missed to replay; reload the full list.
+        source.addEventListener("reset", () => fetchSessionRecords(sessionId));
+        source.addEventListener("closed", () => source.close());
+
+        return () => source.close();
+    }, [showQRModal, generatedSession?.id]);
+
     const formatTime = (seconds) => {
         const m = Math.floor(seconds / 60);
         const s = seconds % 60;
@@ -312,6 +360,7 @@ export default function SessionTab() {
 
             const expiresInMinutes = tokenResponse.expiresInMinutes || 5;
             const token = tokenResponse.token;
+            const qrToken = tokenResponse.qrToken || token;
             const timeLeftSeconds = expiresInMinutes * 60;
 
             const newSession = {
@@ -319,7 +368,7 @@ export default function SessionTab() {
                 title: sessionTitle,
                 eligibleClasses: section,
                 createdAt: new Date().toLocaleString(),
-                qrValue: token,
+                qrValue: qrToken,
                 duration: timeLeftSeconds, 
                 timeLeft: timeLeftSeconds,
                 status: "Active",
@@ -327,6 +376,7 @@ export default function SessionTab() {
 
             // Use functional update to ensure we always append to the latest state
             setSessions((prev) => [newSession, ...prev]);
+            setCheckInRecords([]);
             setGeneratedSession(newSession);
             setShowQRModal(true);
             showToast(`Session '${sessionTitle}' created successfully!`, "success");
@@ -361,7 +411,9 @@ export default function SessionTab() {
                     parsed = [];
                 }
             }
-            setCheckInRecords(Array.isArray(parsed) ? parsed : []);
+            // { records, cursor }; pass cursor as ?since= to fetch only newer check-ins.
+            const list = Array.isArray(parsed) ? parsed : parsed?.records;
+            setCheckInRecords(Array.isArray(list) ? list : []);
         } catch (error) {
             console.error("Failed to fetch session records:", error);
             showToast(`Error fetching records: ${error.message}`, "error");
@@ -373,7 +425,7 @@ export default function SessionTab() {
     const openQRModalWithRecords = (session) => {
         setGeneratedSession(session);
         setShowQRModal(true);
-        fetchSessionRecords(session.qrValue);
+        fetchSessionRecords(session.id);
     };
 
     const handleDownloadQR = async () => {
@@ -389,7 +441,7 @@ export default function SessionTab() {
                     const url = URL.createObjectURL(blob);
                     const a = document.createElement("a");
                     a.href = url;
-                    a.download = `${generatedSession.title}_${generatedSession.qrValue.substring(0, 8)}_QR.svg`;
+                    a.download = `${generatedSession.title}_${generatedSession.id.substring(0, 8)}_QR.svg`;
                     document.body.appendChild(a);
                     a.click();
                     document.body.removeChild(a);
@@ -412,7 +464,7 @@ export default function SessionTab() {
             const url = URL.createObjectURL(blob);
             const a = document.createElement("a");
             a.href = url;
-            a.download = `${generatedSession.title}_${generatedSession.qrValue.substring(0, 8)}_QR.svg`;
+            a.download = `${generatedSession.title}_${generatedSession.id.substring(0, 8)}_QR.svg`;
             document.body.appendChild(a);
             a.click();
             document.body.removeChild(a);